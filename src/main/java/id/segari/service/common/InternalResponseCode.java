@@ -16,5 +16,10 @@ public enum InternalResponseCode {
     CANNOT_FIND_CONNECTED_PRINTER,
     SUCCESS_DISCONNECTING_PRINTER,
     UNABLE_TO_GET_DEVICE_LIST,
-    FAILED_TO_PRINT, WEBSOCKET_EMPTY_CONFIG, INVALID_WAREHOUSE_ID, WEBSOCKET_ALLOW_ONLY_ONE_WAREHOUSE, WEBSOCKET_WAREHOUSE_NOT_CONNECTED, WEBSOCKET_CONNECTION_FAILED, PRINT_QUEUE_MAX_QUEUE, PRINT_QUEUE_MAX_JOB, UPDATE_ERROR;
+    FAILED_TO_PRINT, WEBSOCKET_EMPTY_CONFIG, INVALID_WAREHOUSE_ID, WEBSOCKET_ALLOW_ONLY_ONE_WAREHOUSE, WEBSOCKET_WAREHOUSE_NOT_CONNECTED, WEBSOCKET_CONNECTION_FAILED, PRINT_QUEUE_MAX_QUEUE, PRINT_QUEUE_MAX_JOB, UPDATE_ERROR, LABEL_TEMPLATE_NOT_FOUND, INVALID_LABEL_TEMPLATE, INVALID_LABEL_VARIABLES, INVALID_IMAGE, GRAPHIC_NOT_FOUND, DUPLICATE_PRINT_JOB, PRINTER_GROUP_NOT_FOUND, PRINTER_ENDPOINT_NOT_FOUND;
+
+    /** The job was refused only because a print queue had no room, so it can be offered again later. */
+    public boolean isQueueFull() {
+        return this == PRINT_QUEUE_MAX_JOB || this == PRINT_QUEUE_MAX_QUEUE;
+    }
 }
@@ -0,0 +1,8 @@
+package id.segari.service.common.dto.graphic;
+
+/**
+ * Data encoding of a {@code ^GFA} graphic field. {@code AUTO} picks whichever of the two is shorter.
+ */
+public enum ZplGraphicEncoding {
+    AUTO, Z64, ACS
+}
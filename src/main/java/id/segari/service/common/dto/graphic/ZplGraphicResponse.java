@@ -0,0 +1,12 @@
+package id.segari.service.common.dto.graphic;
+
+public record ZplGraphicResponse(
+        String id,
+        int width,
+        int height,
+        int bytesPerRow,
+        int totalBytes,
+        ZplGraphicEncoding encoding,
+        String command
+) {
+}
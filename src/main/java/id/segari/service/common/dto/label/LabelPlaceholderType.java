@@ -0,0 +1,66 @@
+package id.segari.service.common.dto.label;
+
+/**
+ * Value types accepted by template placeholders. None of them may contain the ZPL command prefixes
+ * {@code ^} or {@code ~}, so a variable can never inject commands into the rendered label.
+ * A {@code GRAPHIC} value is the id of a converted graphic and renders as its {@code ^GFA} field.
+ */
+public enum LabelPlaceholderType {
+    TEXT, NUMBER, BARCODE, GRAPHIC;
+
+    /** Hex characters in the id of a converted graphic. */
+    public static final int GRAPHIC_ID_LENGTH = 32;
+
+    public boolean accepts(String value) {
+        if (value == null) return false;
+        return switch (this) {
+            case TEXT -> isFreeOfCommands(value);
+            case NUMBER -> isNumber(value);
+            case BARCODE -> !value.isEmpty() && isPrintableAscii(value);
+            case GRAPHIC -> isGraphicId(value);
+        };
+    }
+
+    private static boolean isGraphicId(String value) {
+        if (value.length() != GRAPHIC_ID_LENGTH) return false;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) return false;
+        }
+        return true;
+    }
+
+    private static boolean isFreeOfCommands(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '^' || c == '~') return false;
+        }
+        return true;
+    }
+
+    private static boolean isPrintableAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7E || c == '^' || c == '~') return false;
+        }
+        return true;
+    }
+
+    private static boolean isNumber(String value) {
+        int i = value.startsWith("-") ? 1 : 0;
+        boolean digits = false;
+        boolean decimalPoint = false;
+        for (; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !decimalPoint && digits) {
+                decimalPoint = true;
+                digits = false;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+}
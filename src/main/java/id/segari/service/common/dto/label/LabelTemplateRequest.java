@@ -0,0 +1,6 @@
+package id.segari.service.common.dto.label;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record LabelTemplateRequest(@NotBlank String content) {
+}
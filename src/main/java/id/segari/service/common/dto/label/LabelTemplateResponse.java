@@ -0,0 +1,7 @@
+package id.segari.service.common.dto.label;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public record LabelTemplateResponse(String id, String content, Map<String, LabelPlaceholderType> placeholders, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,5 @@
+package id.segari.service.common.dto.printer;
+
+public enum PrinterConnectionState {
+    CONNECTED, DISCONNECTED
+}
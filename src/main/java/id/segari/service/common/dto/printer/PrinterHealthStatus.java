@@ -0,0 +1,6 @@
+package id.segari.service.common.dto.printer;
+
+import java.time.LocalDateTime;
+
+public record PrinterHealthStatus(int printerId, String serialNumber, PrinterConnectionState state, LocalDateTime changedAt) {
+}
@@ -0,0 +1,23 @@
+package id.segari.service.common.dto.printer;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/** Flags from the printer's {@code ~HS} host status response. */
+public record PrinterHostStatus(int printerId, boolean paperOut, boolean paused, int formatsInBuffer,
+                                boolean bufferFull, boolean underTemperature, boolean overTemperature,
+                                boolean headUp, boolean ribbonOut, boolean labelWaiting, int labelsRemaining,
+                                LocalDateTime polledAt) {
+    /** Jobs are held while this is false; the printer would otherwise leave them unacknowledged until the transfer times out. */
+    @JsonProperty("ready")
+    public boolean isReady() {
+        return !paused && !bufferFull && !paperOut && !headUp;
+    }
+
+    public boolean sameFlags(PrinterHostStatus other) {
+        return other != null && paperOut == other.paperOut && paused == other.paused && bufferFull == other.bufferFull
+                && underTemperature == other.underTemperature && overTemperature == other.overTemperature
+                && headUp == other.headUp && ribbonOut == other.ribbonOut;
+    }
+}
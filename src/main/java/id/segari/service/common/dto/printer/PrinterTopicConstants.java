@@ -0,0 +1,7 @@
+package id.segari.service.common.dto.printer;
+
+public class PrinterTopicConstants {
+    public static final String STATUS_TOPIC = "/topic/printer/status";
+    public static final String JOB_TOPIC = "/topic/printer/job";
+    public static final String HOST_STATUS_TOPIC = "/topic/printer/host-status";
+}
@@ -0,0 +1,20 @@
+package id.segari.service.common.dto.printer.print;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import id.segari.service.common.InternalResponseCode;
+
+/** Outcome of one item of a bulk submission: the queued (or coalesced) job id, or why it was rejected. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkPrintItemResult(Long jobId, InternalResponseCode code, String error) {
+    public static BulkPrintItemResult accepted(long jobId) {
+        return new BulkPrintItemResult(jobId, InternalResponseCode.SUCCESS, null);
+    }
+
+    public static BulkPrintItemResult rejected(InternalResponseCode code, String error) {
+        return new BulkPrintItemResult(null, code, error);
+    }
+
+    public boolean isAccepted() {
+        return jobId != null;
+    }
+}
@@ -0,0 +1,7 @@
+package id.segari.service.common.dto.printer.print;
+
+import java.util.List;
+
+/** {@code results} is in submission order, one entry per submitted request. */
+public record BulkPrintResponse(int accepted, int rejected, List<BulkPrintItemResult> results) {
+}
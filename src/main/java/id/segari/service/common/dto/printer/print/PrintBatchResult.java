@@ -0,0 +1,11 @@
+package id.segari.service.common.dto.printer.print;
+
+/**
+ * Outcome of a batched print. Jobs are sent as one stream in submission order, so the first
+ * {@code printedJobs} jobs reached the printer and the remaining ones did not.
+ */
+public record PrintBatchResult(int totalJobs, int printedJobs, String error) {
+    public boolean isPrinted(int index) {
+        return index < printedJobs;
+    }
+}
@@ -0,0 +1,9 @@
+package id.segari.service.common.dto.printer.print;
+
+public enum PrintJobState {
+    QUEUED, PRINTING, RETRYING, DONE, FAILED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED;
+    }
+}
@@ -0,0 +1,16 @@
+package id.segari.service.common.dto.printer.print;
+
+import java.time.LocalDateTime;
+
+public record PrintJobStatusResponse(
+        long jobId,
+        int printerId,
+        String orderId,
+        PrintJobState state,
+        int attempts,
+        LocalDateTime queuedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error
+) {
+}
@@ -0,0 +1,19 @@
+package id.segari.service.common.dto.printer.print;
+
+/**
+ * Lane a print job is queued in. Weights decide each lane's share of dequeues while several lanes are
+ * backed up, so lower lanes still make progress during an urgent burst.
+ */
+public enum PrintPriority {
+    URGENT(8), HIGH(4), NORMAL(2), BULK(1);
+
+    private final int weight;
+
+    PrintPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int weight() {
+        return weight;
+    }
+}
@@ -1,6 +1,41 @@
 package id.segari.service.common.dto.printer.print;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 
-public record PrinterPrintRequest(int id,@NotBlank String orderId, @NotBlank String command) {
+import java.util.Map;
+
+/**
+ * A label is either a full ZPL {@code command} or a registered {@code templateId} with its {@code variables}.
+ * When {@code groupId} is set the job goes to the least busy member of that printer group and may be taken
+ * over by an idle member; otherwise it is pinned to printer {@code id}.
+ */
+public record PrinterPrintRequest(int id, @NotBlank String orderId, String command, PrintPriority priority,
+                                  String templateId, Map<String, String> variables, String groupId) {
+    public PrinterPrintRequest {
+        if (priority == null) priority = PrintPriority.NORMAL;
+    }
+
+    public PrinterPrintRequest withPrinterId(int printerId) {
+        return new PrinterPrintRequest(printerId, orderId, command, priority, templateId, variables, groupId);
+    }
+
+    @JsonIgnore
+    public boolean isGrouped() {
+        return groupId != null;
+    }
+
+    @JsonIgnore
+    public boolean isTemplated() {
+        return templateId != null;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "exactly one of command or templateId must be provided")
+    public boolean isPayloadValid() {
+        final boolean hasCommand = command != null && !command.isBlank();
+        final boolean hasTemplate = templateId != null && !templateId.isBlank();
+        return hasCommand != hasTemplate;
+    }
 }
@@ -0,0 +1,4 @@
+package id.segari.service.common.dto.printer.print;
+
+public record RawPrintResponse(int id, long bytesTransferred) {
+}
@@ -0,0 +1,15 @@
+package id.segari.service.common.dto.queue;
+
+import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+
+import java.time.LocalDateTime;
+
+public record DeadLetterJobResponse(
+        long jobId,
+        int printerId,
+        PrinterPrintRequest request,
+        int attempts,
+        String error,
+        LocalDateTime failedAt
+) {
+}
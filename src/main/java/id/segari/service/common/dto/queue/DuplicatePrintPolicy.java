@@ -0,0 +1,11 @@
+package id.segari.service.common.dto.queue;
+
+/**
+ * What happens to a print request whose order id and content match a job submitted within the idempotency window.
+ */
+public enum DuplicatePrintPolicy {
+    /** Fail the request with {@code DUPLICATE_PRINT_JOB}. */
+    REJECT,
+    /** Accept the request without queuing it again and return the status of the original job. */
+    COALESCE
+}
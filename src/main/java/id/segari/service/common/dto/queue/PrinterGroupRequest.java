@@ -0,0 +1,9 @@
+package id.segari.service.common.dto.queue;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record PrinterGroupRequest(@NotEmpty List<@NotNull Integer> printerIds) {
+}
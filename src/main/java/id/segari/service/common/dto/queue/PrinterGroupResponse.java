@@ -0,0 +1,6 @@
+package id.segari.service.common.dto.queue;
+
+import java.util.List;
+
+public record PrinterGroupResponse(String groupId, List<Integer> printerIds) {
+}
@@ -0,0 +1,6 @@
+package id.segari.service.common.dto.queue;
+
+import jakarta.validation.constraints.Positive;
+
+public record QueueConfigRequest(@Positive Integer maxQueues, @Positive Integer maxQueueSize, @Positive Integer maxConcurrentConsumers) {
+}
@@ -0,0 +1,4 @@
+package id.segari.service.common.dto.queue;
+
+public record QueueConfigResponse(int maxQueues, int maxQueueSize, int maxConcurrentConsumers, int activeConsumers) {
+}
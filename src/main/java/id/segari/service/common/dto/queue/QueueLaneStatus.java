@@ -0,0 +1,4 @@
+package id.segari.service.common.dto.queue;
+
+public record QueueLaneStatus(int depth, long oldestWaitMs, long averageWaitMs) {
+}
@@ -1,6 +1,9 @@
 package id.segari.service.common.dto.queue;
 
+import id.segari.service.common.dto.printer.print.PrintPriority;
+
 import java.util.Map;
 
-public record QueueOverallStatusResponse(int totalQueues, int totalPendingJobs, Map<Integer, Integer> queueSizes) {
-}
\ No newline at end of file
+public record QueueOverallStatusResponse(int totalQueues, int totalPendingJobs, Map<Integer, Integer> queueSizes,
+                                         Map<Integer, Map<PrintPriority, QueueLaneStatus>> lanes) {
+}
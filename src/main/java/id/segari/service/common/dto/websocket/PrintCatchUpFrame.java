@@ -0,0 +1,11 @@
+package id.segari.service.common.dto.websocket;
+
+import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+
+import java.util.List;
+
+/**
+ * A print frame the backend published to a warehouse topic, as returned by the catch-up endpoint.
+ */
+public record PrintCatchUpFrame(long sequence, List<PrinterPrintRequest> requests) {
+}
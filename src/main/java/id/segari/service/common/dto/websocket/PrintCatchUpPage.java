@@ -0,0 +1,6 @@
+package id.segari.service.common.dto.websocket;
+
+import java.util.List;
+
+public record PrintCatchUpPage(List<PrintCatchUpFrame> frames, boolean hasMore) {
+}
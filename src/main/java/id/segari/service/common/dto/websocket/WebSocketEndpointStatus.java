@@ -0,0 +1,7 @@
+package id.segari.service.common.dto.websocket;
+
+import java.time.LocalDateTime;
+
+/** The result of the last latency probe of one STOMP endpoint. */
+public record WebSocketEndpointStatus(String url, boolean isHealthy, Double latencyMs, LocalDateTime probedAt) {
+}
@@ -0,0 +1,25 @@
+package id.segari.service.common.dto.websocket;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record WebSocketLinkStatus(
+        boolean isConnected,
+        String serverUrl,
+        LocalDateTime connectedSince,
+        Long connectLatencyMs,
+        Double rttMs,
+        Double smoothedRttMs,
+        Long heartbeatSendMs,
+        Long heartbeatReceiveMs,
+        long connectAttempts,
+        long connectFailures,
+        long reconnects,
+        long failovers,
+        long missedHeartbeats,
+        LocalDateTime lastDisconnectTime,
+        String lastDisconnectReason,
+        Long nextReconnectDelayMs,
+        List<WebSocketEndpointStatus> endpoints
+) {
+}
@@ -3,10 +3,15 @@ package id.segari.service.common.dto.websocket;
 import java.time.LocalDateTime;
 
 public record WebSocketStatus(
-        long lastConnectedWarehouseId,
+        long warehouseId,
         boolean isConnected,
+        boolean isPaused,
+        long messagesReceived,
         LocalDateTime lastMessageTime,
         LocalDateTime lastConnectTime,
-        String serverUrl
+        String serverUrl,
+        Long lastSequence,
+        boolean isCatchingUp,
+        long framesCaughtUp
 ) {
-}
\ No newline at end of file
+}
@@ -1,13 +1,32 @@
 package id.segari.service.config;
 
+import id.segari.service.common.dto.queue.DuplicatePrintPolicy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @ConfigurationProperties(prefix = "print.queue")
 public class PrintQueueConfig {
-    private int maxQueues = 20;
-    private int maxQueueSize = 20;
+    private volatile int maxQueues = 20;
+    private volatile int maxQueueSize = 500;
+    private volatile int maxConcurrentConsumers = 20;
+    private boolean batchEnabled = false;
+    private int batchMaxJobs = 50;
+    private int batchMaxBytes = 256 * 1024;
+    private long batchLingerMs = 20;
+    private boolean journalEnabled = false;
+    private String journalDirectory = "./data/journal";
+    private long journalFlushIntervalMs = 5;
+    private int jobHistorySize = 10_000;
+    private long jobHistoryTtlMs = 10 * 60 * 1000;
+    private int retryMaxAttempts = 5;
+    private long retryInitialBackoffMs = 200;
+    private long retryMaxBackoffMs = 10_000;
+    private int deadLetterMaxSize = 500;
+    private boolean idempotencyEnabled = true;
+    private DuplicatePrintPolicy idempotencyPolicy = DuplicatePrintPolicy.COALESCE;
+    private long idempotencyWindowMs = 60_000;
+    private int idempotencyMaxEntries = 50_000;
 
     public int getMaxQueues() {
         return maxQueues;
@@ -24,4 +43,148 @@ public class PrintQueueConfig {
     public void setMaxQueueSize(int maxQueueSize) {
         this.maxQueueSize = maxQueueSize;
     }
-}
\ No newline at end of file
+
+    public int getMaxConcurrentConsumers() {
+        return maxConcurrentConsumers;
+    }
+
+    public void setMaxConcurrentConsumers(int maxConcurrentConsumers) {
+        this.maxConcurrentConsumers = maxConcurrentConsumers;
+    }
+
+    public boolean isBatchEnabled() {
+        return batchEnabled;
+    }
+
+    public void setBatchEnabled(boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    public int getBatchMaxJobs() {
+        return batchMaxJobs;
+    }
+
+    public void setBatchMaxJobs(int batchMaxJobs) {
+        this.batchMaxJobs = batchMaxJobs;
+    }
+
+    public int getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public void setBatchMaxBytes(int batchMaxBytes) {
+        this.batchMaxBytes = batchMaxBytes;
+    }
+
+    public long getBatchLingerMs() {
+        return batchLingerMs;
+    }
+
+    public void setBatchLingerMs(long batchLingerMs) {
+        this.batchLingerMs = batchLingerMs;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public void setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    public long getJournalFlushIntervalMs() {
+        return journalFlushIntervalMs;
+    }
+
+    public void setJournalFlushIntervalMs(long journalFlushIntervalMs) {
+        this.journalFlushIntervalMs = journalFlushIntervalMs;
+    }
+
+    public int getJobHistorySize() {
+        return jobHistorySize;
+    }
+
+    public void setJobHistorySize(int jobHistorySize) {
+        this.jobHistorySize = jobHistorySize;
+    }
+
+    public long getJobHistoryTtlMs() {
+        return jobHistoryTtlMs;
+    }
+
+    public void setJobHistoryTtlMs(long jobHistoryTtlMs) {
+        this.jobHistoryTtlMs = jobHistoryTtlMs;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(int retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    public long getRetryInitialBackoffMs() {
+        return retryInitialBackoffMs;
+    }
+
+    public void setRetryInitialBackoffMs(long retryInitialBackoffMs) {
+        this.retryInitialBackoffMs = retryInitialBackoffMs;
+    }
+
+    public long getRetryMaxBackoffMs() {
+        return retryMaxBackoffMs;
+    }
+
+    public void setRetryMaxBackoffMs(long retryMaxBackoffMs) {
+        this.retryMaxBackoffMs = retryMaxBackoffMs;
+    }
+
+    public int getDeadLetterMaxSize() {
+        return deadLetterMaxSize;
+    }
+
+    public void setDeadLetterMaxSize(int deadLetterMaxSize) {
+        this.deadLetterMaxSize = deadLetterMaxSize;
+    }
+
+    public boolean isIdempotencyEnabled() {
+        return idempotencyEnabled;
+    }
+
+    public void setIdempotencyEnabled(boolean idempotencyEnabled) {
+        this.idempotencyEnabled = idempotencyEnabled;
+    }
+
+    public DuplicatePrintPolicy getIdempotencyPolicy() {
+        return idempotencyPolicy;
+    }
+
+    public void setIdempotencyPolicy(DuplicatePrintPolicy idempotencyPolicy) {
+        this.idempotencyPolicy = idempotencyPolicy;
+    }
+
+    public long getIdempotencyWindowMs() {
+        return idempotencyWindowMs;
+    }
+
+    public void setIdempotencyWindowMs(long idempotencyWindowMs) {
+        this.idempotencyWindowMs = idempotencyWindowMs;
+    }
+
+    public int getIdempotencyMaxEntries() {
+        return idempotencyMaxEntries;
+    }
+
+    public void setIdempotencyMaxEntries(int idempotencyMaxEntries) {
+        this.idempotencyMaxEntries = idempotencyMaxEntries;
+    }
+}
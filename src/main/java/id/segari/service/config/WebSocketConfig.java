@@ -1,19 +1,17 @@
 package id.segari.service.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-
 @Configuration
 public class WebSocketConfig {
 
     @Bean
-    public WebSocketStompClient webSocketStompClient() {
+    public WebSocketStompClient webSocketStompClient(@Value("${websocket.heartbeat.interval.ms}") long heartbeatIntervalMs) {
         WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
 
         // Configure task scheduler
@@ -21,12 +19,9 @@ public class WebSocketConfig {
         taskScheduler.setThreadFactory(Thread.ofVirtual().name("vws-", 0).factory());
         taskScheduler.initialize();
         stompClient.setTaskScheduler(taskScheduler);
+        // Offer to send and expect heartbeats; the session drops the link after three missed ones
+        stompClient.setDefaultHeartbeat(new long[]{heartbeatIntervalMs, heartbeatIntervalMs});
 
         return stompClient;
     }
-
-    @Bean
-    public ScheduledExecutorService webSocketScheduledExecutor() {
-        return Executors.newScheduledThreadPool(2);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package id.segari.service.controller;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.label.LabelTemplateRequest;
+import id.segari.service.common.dto.label.LabelTemplateResponse;
+import id.segari.service.common.response.SuccessResponse;
+import id.segari.service.service.LabelTemplateService;
+import jakarta.validation.Valid;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/label-template")
+@Validated
+public class LabelTemplateController {
+    private final LabelTemplateService labelTemplateService;
+
+    public LabelTemplateController(LabelTemplateService labelTemplateService) {
+        this.labelTemplateService = labelTemplateService;
+    }
+
+    @GetMapping
+    public SuccessResponse<List<LabelTemplateResponse>> getAll() {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, labelTemplateService.getAll());
+    }
+
+    @GetMapping("/{id}")
+    public SuccessResponse<LabelTemplateResponse> get(@PathVariable String id) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, labelTemplateService.get(id));
+    }
+
+    @PutMapping("/{id}")
+    public SuccessResponse<LabelTemplateResponse> save(@PathVariable String id, @Valid @RequestBody LabelTemplateRequest request) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, labelTemplateService.save(id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    public SuccessResponse<Boolean> delete(@PathVariable String id) {
+        labelTemplateService.delete(id);
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, true);
+    }
+}
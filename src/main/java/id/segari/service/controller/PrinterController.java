@@ -1,19 +1,34 @@
 package id.segari.service.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import id.segari.service.common.InternalResponseCode;
 import id.segari.service.common.dto.PrinterUsb;
+import id.segari.service.common.dto.graphic.ZplGraphicEncoding;
+import id.segari.service.common.dto.graphic.ZplGraphicResponse;
+import id.segari.service.common.dto.printer.PrinterHealthStatus;
+import id.segari.service.common.dto.printer.PrinterHostStatus;
 import id.segari.service.common.dto.printer.connect.PrinterConnectRequest;
 import id.segari.service.common.dto.printer.connect.PrinterConnectResponse;
 import id.segari.service.common.dto.printer.disconnect.PrinterDisconnectResponse;
+import id.segari.service.common.dto.printer.print.BulkPrintResponse;
+import id.segari.service.common.dto.printer.print.PrintJobStatusResponse;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.common.dto.printer.print.RawPrintResponse;
 import id.segari.service.common.response.SuccessResponse;
+import id.segari.service.exception.InternalBaseException;
 import id.segari.service.service.PrintQueueService;
 import id.segari.service.service.PrinterService;
 import id.segari.service.service.UrlService;
+import id.segari.service.service.ZplGraphicService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -23,11 +38,16 @@ public class PrinterController {
     private final PrinterService printerService;
     private final PrintQueueService printQueueService;
     private final UrlService urlService;
+    private final ZplGraphicService zplGraphicService;
+    private final ObjectMapper objectMapper;
 
-    public PrinterController(PrinterService printerService, PrintQueueService printQueueService, UrlService urlService) {
+    public PrinterController(PrinterService printerService, PrintQueueService printQueueService, UrlService urlService,
+                             ZplGraphicService zplGraphicService, ObjectMapper objectMapper) {
         this.printerService = printerService;
         this.printQueueService = printQueueService;
         this.urlService = urlService;
+        this.zplGraphicService = zplGraphicService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/connected/{id}")
@@ -35,6 +55,16 @@ public class PrinterController {
         return new SuccessResponse<>(InternalResponseCode.SUCCESS, printerService.isConnected(id));
     }
 
+    @GetMapping("/health")
+    public SuccessResponse<List<PrinterHealthStatus>> getHealth(){
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printerService.getHealth());
+    }
+
+    @GetMapping("/host-status")
+    public SuccessResponse<List<PrinterHostStatus>> getHostStatuses(){
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printerService.getHostStatuses());
+    }
+
     @GetMapping("/ping")
     public SuccessResponse<String> ping(){
         return new SuccessResponse<>(InternalResponseCode.SUCCESS, "PONG");
@@ -47,9 +77,43 @@ public class PrinterController {
     }
 
     @PostMapping("/print")
-    public SuccessResponse<String> print(@Valid @RequestBody PrinterPrintRequest request) {
-        printQueueService.addToQueue(request);
-        return new SuccessResponse<>(InternalResponseCode.SUCCESS, "Print job added to queue");
+    public SuccessResponse<PrintJobStatusResponse> print(@Valid @RequestBody PrinterPrintRequest request) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.addToQueue(request));
+    }
+
+    @PostMapping(value = "/print/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public SuccessResponse<BulkPrintResponse> printBulk(@RequestBody List<PrinterPrintRequest> requests) {
+        // Items are validated one by one by the queue so a bad label only rejects itself
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.addAllToQueue(requests));
+    }
+
+    @PostMapping(value = "/print/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public SuccessResponse<BulkPrintResponse> printBulkNdjson(InputStream data) {
+        final List<PrinterPrintRequest> requests;
+        try (MappingIterator<PrinterPrintRequest> iterator = objectMapper.readerFor(PrinterPrintRequest.class).readValues(data)) {
+            requests = iterator.readAll();
+        } catch (IOException e) {
+            throw new InternalBaseException(InternalResponseCode.VALIDATION_ERROR, HttpStatus.BAD_REQUEST, "Invalid NDJSON print requests: " + e.getMessage());
+        }
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.addAllToQueue(requests));
+    }
+
+    @PostMapping(value = "/print/{id}/raw", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public SuccessResponse<RawPrintResponse> printRaw(@PathVariable int id, InputStream data) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printerService.printRaw(id, data));
+    }
+
+    @PostMapping(value = "/graphic", consumes = {MediaType.IMAGE_PNG_VALUE, "image/bmp", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public SuccessResponse<ZplGraphicResponse> convertGraphic(@RequestBody byte[] image,
+                                                              @RequestParam(defaultValue = "128") int threshold,
+                                                              @RequestParam(defaultValue = "false") boolean dither,
+                                                              @RequestParam(defaultValue = "AUTO") ZplGraphicEncoding encoding) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, zplGraphicService.convert(image, threshold, dither, encoding));
+    }
+
+    @GetMapping("/graphic/{id}")
+    public SuccessResponse<ZplGraphicResponse> getGraphic(@PathVariable String id) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, zplGraphicService.get(id));
     }
 
     @DeleteMapping("/disconnect/{id}")
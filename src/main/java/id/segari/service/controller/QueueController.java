@@ -1,11 +1,19 @@
 package id.segari.service.controller;
 
 import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.printer.print.PrintJobStatusResponse;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.common.dto.queue.DeadLetterJobResponse;
+import id.segari.service.common.dto.queue.PrinterGroupRequest;
+import id.segari.service.common.dto.queue.PrinterGroupResponse;
+import id.segari.service.common.dto.queue.QueueConfigRequest;
+import id.segari.service.common.dto.queue.QueueConfigResponse;
 import id.segari.service.common.dto.queue.QueueOverallStatusResponse;
 import id.segari.service.common.dto.queue.QueueStatusResponse;
 import id.segari.service.common.response.SuccessResponse;
 import id.segari.service.service.PrintQueueService;
+import jakarta.validation.Valid;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -13,6 +21,7 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/v1/queue")
+@Validated
 public class QueueController {
     private final PrintQueueService printQueueService;
 
@@ -25,7 +34,7 @@ public class QueueController {
         final Map<Integer, Integer> queueSizes = printQueueService.getAllQueueSizes();
         final int totalQueues = printQueueService.getTotalQueues();
         final int totalJobs = queueSizes.values().stream().mapToInt(Integer::intValue).sum();
-        return new SuccessResponse<>(InternalResponseCode.SUCCESS, new QueueOverallStatusResponse(totalQueues, totalJobs, queueSizes));
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, new QueueOverallStatusResponse(totalQueues, totalJobs, queueSizes, printQueueService.getAllLaneStatuses()));
     }
 
     @GetMapping("/status/{id}")
@@ -39,6 +48,52 @@ public class QueueController {
         return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.getPendingJobs(id));
     }
 
+    @GetMapping("/job/{orderId}")
+    public SuccessResponse<List<PrintJobStatusResponse>> getJobStatus(@PathVariable String orderId) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.getJobStatus(orderId));
+    }
+
+    @GetMapping("/config")
+    public SuccessResponse<QueueConfigResponse> getConfig() {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.getConfig());
+    }
+
+    @PutMapping("/config")
+    public SuccessResponse<QueueConfigResponse> updateConfig(@Valid @RequestBody QueueConfigRequest request) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.updateConfig(request));
+    }
+
+    @GetMapping("/group")
+    public SuccessResponse<List<PrinterGroupResponse>> getPrinterGroups() {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.getPrinterGroups());
+    }
+
+    @PutMapping("/group/{groupId}")
+    public SuccessResponse<PrinterGroupResponse> savePrinterGroup(@PathVariable String groupId, @Valid @RequestBody PrinterGroupRequest request) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.savePrinterGroup(groupId, request));
+    }
+
+    @DeleteMapping("/group/{groupId}")
+    public SuccessResponse<Boolean> deletePrinterGroup(@PathVariable String groupId) {
+        printQueueService.deletePrinterGroup(groupId);
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, true);
+    }
+
+    @GetMapping("/dead-letter/{id}")
+    public SuccessResponse<List<DeadLetterJobResponse>> getDeadLetterJobs(@PathVariable int id) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.getDeadLetterJobs(id));
+    }
+
+    @PostMapping("/dead-letter/{id}/replay")
+    public SuccessResponse<List<PrintJobStatusResponse>> replayDeadLetterJobs(@PathVariable int id) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.replayDeadLetterJobs(id));
+    }
+
+    @DeleteMapping("/dead-letter/{id}")
+    public SuccessResponse<Integer> clearDeadLetterJobs(@PathVariable int id) {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.clearDeadLetterJobs(id));
+    }
+
     @DeleteMapping("/clear/{id}")
     public SuccessResponse<Boolean> clearQueue(@PathVariable int id) {
         return new SuccessResponse<>(InternalResponseCode.SUCCESS, printQueueService.clearQueue(id));
@@ -1,11 +1,14 @@
 package id.segari.service.controller;
 
 import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.websocket.WebSocketLinkStatus;
 import id.segari.service.common.dto.websocket.WebSocketStatus;
 import id.segari.service.common.response.SuccessResponse;
 import id.segari.service.service.WebSocketService;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/v1/websocket")
 public class WebSocketController {
@@ -27,6 +30,16 @@ public class WebSocketController {
         return new SuccessResponse<>(InternalResponseCode.SUCCESS, true);
     }
 
+    @GetMapping("/status")
+    public SuccessResponse<List<WebSocketStatus>> getStatuses() {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, webSocketService.getStatuses());
+    }
+
+    @GetMapping("/link")
+    public SuccessResponse<WebSocketLinkStatus> getLinkStatus() {
+        return new SuccessResponse<>(InternalResponseCode.SUCCESS, webSocketService.getLinkStatus());
+    }
+
     @GetMapping("/status/{warehouseId}")
     public SuccessResponse<WebSocketStatus> getStatus(@PathVariable long warehouseId) {
         WebSocketStatus status = webSocketService.getStatus(warehouseId);
@@ -0,0 +1,52 @@
+package id.segari.service.db.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "label_templates")
+public class LabelTemplate {
+
+    @Id
+    private String id;
+
+    @Column(name = "content", nullable = false)
+    private String content;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public LabelTemplate() {
+    }
+
+    public LabelTemplate(String id, String content, LocalDateTime updatedAt) {
+        this.id = id;
+        this.content = content;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,54 @@
+package id.segari.service.db.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/** The print frame sequence a warehouse had handled up to, so frames missed across a restart are caught up. */
+@Entity
+@Table(name = "print_sequence_cursors")
+public class PrintSequenceCursor {
+
+    @Id
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public PrintSequenceCursor() {
+    }
+
+    public PrintSequenceCursor(Long warehouseId, long lastSequence, LocalDateTime updatedAt) {
+        this.warehouseId = warehouseId;
+        this.lastSequence = lastSequence;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
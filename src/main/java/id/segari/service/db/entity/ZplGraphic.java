@@ -0,0 +1,103 @@
+package id.segari.service.db.entity;
+
+import id.segari.service.common.dto.graphic.ZplGraphicEncoding;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "zpl_graphics")
+public class ZplGraphic {
+
+    @Id
+    private String id;
+
+    @Column(name = "width", nullable = false)
+    private int width;
+
+    @Column(name = "height", nullable = false)
+    private int height;
+
+    @Column(name = "bytes_per_row", nullable = false)
+    private int bytesPerRow;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "encoding", nullable = false)
+    private ZplGraphicEncoding encoding;
+
+    @Column(name = "command", nullable = false)
+    private String command;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public ZplGraphic() {
+    }
+
+    public ZplGraphic(String id, int width, int height, int bytesPerRow, ZplGraphicEncoding encoding,
+                      String command, LocalDateTime createdAt) {
+        this.id = id;
+        this.width = width;
+        this.height = height;
+        this.bytesPerRow = bytesPerRow;
+        this.encoding = encoding;
+        this.command = command;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public int getBytesPerRow() {
+        return bytesPerRow;
+    }
+
+    public void setBytesPerRow(int bytesPerRow) {
+        this.bytesPerRow = bytesPerRow;
+    }
+
+    public ZplGraphicEncoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(ZplGraphicEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
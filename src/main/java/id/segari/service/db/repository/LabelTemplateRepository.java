@@ -0,0 +1,7 @@
+package id.segari.service.db.repository;
+
+import id.segari.service.db.entity.LabelTemplate;
+import org.springframework.data.repository.CrudRepository;
+
+public interface LabelTemplateRepository extends CrudRepository<LabelTemplate, String> {
+}
@@ -0,0 +1,7 @@
+package id.segari.service.db.repository;
+
+import id.segari.service.db.entity.PrintSequenceCursor;
+import org.springframework.data.repository.CrudRepository;
+
+public interface PrintSequenceCursorRepository extends CrudRepository<PrintSequenceCursor, Long> {
+}
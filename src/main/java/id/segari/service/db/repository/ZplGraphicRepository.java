@@ -0,0 +1,7 @@
+package id.segari.service.db.repository;
+
+import id.segari.service.db.entity.ZplGraphic;
+import org.springframework.data.repository.CrudRepository;
+
+public interface ZplGraphicRepository extends CrudRepository<ZplGraphic, String> {
+}
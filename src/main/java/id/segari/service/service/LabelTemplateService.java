@@ -0,0 +1,23 @@
+package id.segari.service.service;
+
+import id.segari.service.common.dto.label.LabelTemplateRequest;
+import id.segari.service.common.dto.label.LabelTemplateResponse;
+import id.segari.service.service.impl.zpl_printer.ZplBufferWriter;
+
+import java.util.List;
+import java.util.Map;
+
+public interface LabelTemplateService {
+    LabelTemplateResponse save(String id, LabelTemplateRequest request);
+    LabelTemplateResponse get(String id);
+    List<LabelTemplateResponse> getAll();
+    void delete(String id);
+    void validateVariables(String id, Map<String, String> variables);
+    /** Encoded size of the rendered label, for batching. */
+    int estimateSize(String id, Map<String, String> variables);
+    /**
+     * Validates the variables against the current template and renders it in one step, so a template changed
+     * or deleted after the job was queued fails that job before anything is written.
+     */
+    void render(String id, Map<String, String> variables, ZplBufferWriter writer);
+}
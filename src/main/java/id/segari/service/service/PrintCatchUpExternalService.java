@@ -0,0 +1,8 @@
+package id.segari.service.service;
+
+import id.segari.service.common.dto.websocket.PrintCatchUpPage;
+
+public interface PrintCatchUpExternalService {
+    /** Print frames of a warehouse after {@code afterSequence}, oldest first; throws when the backend cannot be read. */
+    PrintCatchUpPage getMissedFrames(long warehouseId, long afterSequence, int size);
+}
@@ -1,17 +1,47 @@
 package id.segari.service.service;
 
+import id.segari.service.common.dto.printer.print.BulkPrintResponse;
+import id.segari.service.common.dto.printer.print.PrintJobStatusResponse;
+import id.segari.service.common.dto.printer.print.PrintPriority;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.common.dto.queue.DeadLetterJobResponse;
+import id.segari.service.common.dto.queue.PrinterGroupRequest;
+import id.segari.service.common.dto.queue.PrinterGroupResponse;
+import id.segari.service.common.dto.queue.QueueConfigRequest;
+import id.segari.service.common.dto.queue.QueueConfigResponse;
+import id.segari.service.common.dto.queue.QueueLaneStatus;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface PrintQueueService {
-    void addToQueue(PrinterPrintRequest request);
+    PrintJobStatusResponse addToQueue(PrinterPrintRequest request);
+    /** Like {@link #addToQueue}, but the future completes once the job is committed to the journal. */
+    CompletableFuture<PrintJobStatusResponse> addToQueueDurably(PrinterPrintRequest request);
+    /**
+     * Validates all requests in one pass and queues the valid ones; the requests routed to one printer are
+     * queued together or not at all.
+     */
+    BulkPrintResponse addAllToQueue(List<PrinterPrintRequest> requests);
+    CompletableFuture<BulkPrintResponse> addAllToQueueDurably(List<PrinterPrintRequest> requests);
+    /** Fill level (0..1) of the fullest printer queue. */
+    double getHighestFillRatio();
     int getQueueSize(int printerId);
     int getTotalQueues();
     List<PrinterPrintRequest> getPendingJobs(int printerId);
     Map<Integer, Integer> getAllQueueSizes();
+    Map<Integer, Map<PrintPriority, QueueLaneStatus>> getAllLaneStatuses();
     boolean clearQueue(int printerId);
     void clearAllQueues();
     void removePrinterQueue(int printerId);
+    List<PrintJobStatusResponse> getJobStatus(String orderId);
+    List<DeadLetterJobResponse> getDeadLetterJobs(int printerId);
+    List<PrintJobStatusResponse> replayDeadLetterJobs(int printerId);
+    int clearDeadLetterJobs(int printerId);
+    QueueConfigResponse getConfig();
+    QueueConfigResponse updateConfig(QueueConfigRequest request);
+    List<PrinterGroupResponse> getPrinterGroups();
+    PrinterGroupResponse savePrinterGroup(String groupId, PrinterGroupRequest request);
+    void deletePrinterGroup(String groupId);
 }
\ No newline at end of file
@@ -2,18 +2,30 @@ package id.segari.service.service;
 
 import id.segari.service.common.dto.PrinterUsb;
 import id.segari.service.common.dto.printer.PrinterConnectedResponse;
+import id.segari.service.common.dto.printer.PrinterHealthStatus;
+import id.segari.service.common.dto.printer.PrinterHostStatus;
 import id.segari.service.common.dto.printer.connect.PrinterConnectRequest;
 import id.segari.service.common.dto.printer.connect.PrinterConnectResponse;
 import id.segari.service.common.dto.printer.disconnect.PrinterDisconnectResponse;
+import id.segari.service.common.dto.printer.print.PrintBatchResult;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.common.dto.printer.print.RawPrintResponse;
 
+import java.io.InputStream;
 import java.util.List;
 
 public interface PrinterService {
     PrinterConnectResponse connect(PrinterConnectRequest request);
     PrinterDisconnectResponse disconnect(int id);
     void print(PrinterPrintRequest request);
+    PrintBatchResult printBatch(int id, List<PrinterPrintRequest> requests);
+    /** Streams raw printer language straight to the printer, bypassing the print queue. */
+    RawPrintResponse printRaw(int id, InputStream data);
     List<PrinterUsb> getAllPrinter();
     List<PrinterConnectedResponse> getConnected();
     boolean isConnected(int id);
+    /** Connected and not reporting a condition (paused, full buffer, no media, head open) that would stall a job. */
+    boolean isReady(int id);
+    List<PrinterHealthStatus> getHealth();
+    List<PrinterHostStatus> getHostStatuses();
 }
@@ -1,10 +1,15 @@
 package id.segari.service.service;
 
+import id.segari.service.common.dto.websocket.WebSocketLinkStatus;
 import id.segari.service.common.dto.websocket.WebSocketStatus;
 
+import java.util.List;
+
 public interface WebSocketService {
     void connect(long warehouseId);
     void disconnect(long warehouseId);
     boolean isConnected(long warehouseId);
     WebSocketStatus getStatus(long warehouseId);
-}
\ No newline at end of file
+    List<WebSocketStatus> getStatuses();
+    WebSocketLinkStatus getLinkStatus();
+}
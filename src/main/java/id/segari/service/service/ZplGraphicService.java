@@ -0,0 +1,11 @@
+package id.segari.service.service;
+
+import id.segari.service.common.dto.graphic.ZplGraphicEncoding;
+import id.segari.service.common.dto.graphic.ZplGraphicResponse;
+
+public interface ZplGraphicService {
+    ZplGraphicResponse convert(byte[] image, int threshold, boolean dither, ZplGraphicEncoding encoding);
+    ZplGraphicResponse get(String id);
+    boolean exists(String id);
+    String getCommand(String id);
+}
@@ -0,0 +1,89 @@
+package id.segari.service.service.impl.label_template;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.label.LabelPlaceholderType;
+import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.impl.zpl_printer.ZplBufferWriter;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A template split once into alternating literal segments and placeholders:
+ * {@code literals[0] placeholders[0] literals[1] ... placeholders[n-1] literals[n]}. Rendering writes the
+ * segments and variable values straight into the transfer buffer without building the label as a String.
+ */
+public final class CompiledLabelTemplate {
+    private final String id;
+    private final String content;
+    private final String[] literals;
+    private final String[] placeholderNames;
+    private final LabelPlaceholderType[] placeholderTypes;
+    private final Map<String, LabelPlaceholderType> placeholders;
+    private final int literalBytes;
+
+    CompiledLabelTemplate(String id, String content, String[] literals, String[] placeholderNames, LabelPlaceholderType[] placeholderTypes) {
+        this.id = id;
+        this.content = content;
+        this.literals = literals;
+        this.placeholderNames = placeholderNames;
+        this.placeholderTypes = placeholderTypes;
+        final Map<String, LabelPlaceholderType> byName = new LinkedHashMap<>();
+        for (int i = 0; i < placeholderNames.length; i++) byName.put(placeholderNames[i], placeholderTypes[i]);
+        this.placeholders = Collections.unmodifiableMap(byName);
+        int bytes = 0;
+        for (String literal : literals) bytes += ZplBufferWriter.encodedLength(literal);
+        this.literalBytes = bytes;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public Map<String, LabelPlaceholderType> placeholders() {
+        return placeholders;
+    }
+
+    public void validate(Map<String, String> variables, Predicate<String> graphicExists) {
+        for (Map.Entry<String, LabelPlaceholderType> placeholder : placeholders.entrySet()) {
+            final String value = variables == null ? null : variables.get(placeholder.getKey());
+            if (!placeholder.getValue().accepts(value)) {
+                throw new InternalBaseException(InternalResponseCode.INVALID_LABEL_VARIABLES, HttpStatus.BAD_REQUEST,
+                        "Variable '" + placeholder.getKey() + "' of template " + id + " must be a valid " + placeholder.getValue());
+            }
+            if (placeholder.getValue() == LabelPlaceholderType.GRAPHIC && !graphicExists.test(value)) {
+                throw new InternalBaseException(InternalResponseCode.GRAPHIC_NOT_FOUND, HttpStatus.BAD_REQUEST,
+                        "Variable '" + placeholder.getKey() + "' of template " + id + " refers to unknown graphic " + value);
+            }
+        }
+    }
+
+    /** Encoded size of the rendered label. */
+    public int encodedLength(Map<String, String> variables, Function<String, String> graphicCommands) {
+        int bytes = literalBytes;
+        for (int i = 0; i < placeholderNames.length; i++) {
+            final String value = variables == null ? null : variables.get(placeholderNames[i]);
+            if (value == null) continue;
+            bytes += ZplBufferWriter.encodedLength(placeholderTypes[i] == LabelPlaceholderType.GRAPHIC ? graphicCommands.apply(value) : value);
+        }
+        return bytes;
+    }
+
+    /** Variables must have passed {@link #validate} against this same compiled template. */
+    public void render(ZplBufferWriter writer, Map<String, String> variables, Function<String, String> graphicCommands) {
+        for (int i = 0; i < placeholderNames.length; i++) {
+            writer.write(literals[i]);
+            final String value = variables.get(placeholderNames[i]);
+            writer.write(placeholderTypes[i] == LabelPlaceholderType.GRAPHIC ? graphicCommands.apply(value) : value);
+        }
+        writer.write(literals[placeholderNames.length]);
+    }
+}
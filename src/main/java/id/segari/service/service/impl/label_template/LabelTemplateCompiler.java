@@ -0,0 +1,72 @@
+package id.segari.service.service.impl.label_template;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.label.LabelPlaceholderType;
+import id.segari.service.exception.InternalBaseException;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles ZPL templates with {@code {{name}}} or {@code {{name:TYPE}}} placeholders. Placeholders without
+ * a type are {@link LabelPlaceholderType#TEXT}; a name used more than once must keep the same type.
+ */
+final class LabelTemplateCompiler {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private LabelTemplateCompiler() {
+    }
+
+    static CompiledLabelTemplate compile(String id, String content) {
+        final List<String> literals = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<LabelPlaceholderType> types = new ArrayList<>();
+        final Map<String, LabelPlaceholderType> typeByName = new HashMap<>();
+        int position = 0;
+        int open;
+        while ((open = content.indexOf(OPEN, position)) >= 0) {
+            final int close = content.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) throw invalid(id, "unclosed placeholder at offset " + open);
+            final String placeholder = content.substring(open + OPEN.length(), close).strip();
+            final int separator = placeholder.indexOf(':');
+            final String name = separator < 0 ? placeholder : placeholder.substring(0, separator).strip();
+            final LabelPlaceholderType type = separator < 0 ? LabelPlaceholderType.TEXT : parseType(id, placeholder.substring(separator + 1).strip());
+            if (!isValidName(name)) throw invalid(id, "invalid placeholder name '" + name + "'");
+            final LabelPlaceholderType previous = typeByName.putIfAbsent(name, type);
+            if (previous != null && previous != type) throw invalid(id, "placeholder '" + name + "' is used as both " + previous + " and " + type);
+
+            literals.add(content.substring(position, open));
+            names.add(name);
+            types.add(type);
+            position = close + CLOSE.length();
+        }
+        literals.add(content.substring(position));
+        return new CompiledLabelTemplate(id, content, literals.toArray(String[]::new), names.toArray(String[]::new),
+                types.toArray(LabelPlaceholderType[]::new));
+    }
+
+    private static LabelPlaceholderType parseType(String id, String type) {
+        try {
+            return LabelPlaceholderType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw invalid(id, "unknown placeholder type '" + type + "'");
+        }
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') return false;
+        }
+        return true;
+    }
+
+    private static InternalBaseException invalid(String id, String reason) {
+        return new InternalBaseException(InternalResponseCode.INVALID_LABEL_TEMPLATE, HttpStatus.BAD_REQUEST, "Invalid template " + id + ": " + reason);
+    }
+}
@@ -0,0 +1,102 @@
+package id.segari.service.service.impl.label_template;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.label.LabelTemplateRequest;
+import id.segari.service.common.dto.label.LabelTemplateResponse;
+import id.segari.service.db.entity.LabelTemplate;
+import id.segari.service.db.repository.LabelTemplateRepository;
+import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.LabelTemplateService;
+import id.segari.service.service.ZplGraphicService;
+import id.segari.service.service.impl.zpl_printer.ZplBufferWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class LabelTemplateServiceImpl implements LabelTemplateService {
+    private static final Logger log = LoggerFactory.getLogger(LabelTemplateServiceImpl.class);
+
+    private final LabelTemplateRepository labelTemplateRepository;
+    private final ZplGraphicService zplGraphicService;
+    private final Map<String, CompiledLabelTemplate> compiledById = new ConcurrentHashMap<>();
+
+    public LabelTemplateServiceImpl(LabelTemplateRepository labelTemplateRepository, ZplGraphicService zplGraphicService) {
+        this.labelTemplateRepository = labelTemplateRepository;
+        this.zplGraphicService = zplGraphicService;
+    }
+
+    @Override
+    public LabelTemplateResponse save(String id, LabelTemplateRequest request) {
+        // Compile before saving so a broken template never replaces a working one
+        final CompiledLabelTemplate compiled = LabelTemplateCompiler.compile(id, request.content());
+        final LabelTemplate saved = labelTemplateRepository.save(new LabelTemplate(id, request.content(), LocalDateTime.now()));
+        compiledById.put(id, compiled);
+        log.info("Label template saved: id={}, placeholders={}", id, compiled.placeholders().keySet());
+        return toResponse(compiled, saved.getUpdatedAt());
+    }
+
+    @Override
+    public LabelTemplateResponse get(String id) {
+        final LabelTemplate template = findTemplate(id);
+        return toResponse(getCompiled(id), template.getUpdatedAt());
+    }
+
+    @Override
+    public List<LabelTemplateResponse> getAll() {
+        final List<LabelTemplateResponse> templates = new ArrayList<>();
+        for (LabelTemplate template : labelTemplateRepository.findAll()) {
+            templates.add(toResponse(getCompiled(template.getId()), template.getUpdatedAt()));
+        }
+        return templates;
+    }
+
+    @Override
+    public void delete(String id) {
+        if (!labelTemplateRepository.existsById(id)) throw notFound(id);
+        labelTemplateRepository.deleteById(id);
+        compiledById.remove(id);
+    }
+
+    private CompiledLabelTemplate getCompiled(String id) {
+        final CompiledLabelTemplate cached = compiledById.get(id);
+        if (cached != null) return cached;
+        return compiledById.computeIfAbsent(id, k -> LabelTemplateCompiler.compile(k, findTemplate(k).getContent()));
+    }
+
+    @Override
+    public void validateVariables(String id, Map<String, String> variables) {
+        getCompiled(id).validate(variables, zplGraphicService::exists);
+    }
+
+    @Override
+    public int estimateSize(String id, Map<String, String> variables) {
+        return getCompiled(id).encodedLength(variables, zplGraphicService::getCommand);
+    }
+
+    @Override
+    public void render(String id, Map<String, String> variables, ZplBufferWriter writer) {
+        final CompiledLabelTemplate compiled = getCompiled(id);
+        compiled.validate(variables, zplGraphicService::exists);
+        compiled.render(writer, variables, zplGraphicService::getCommand);
+    }
+
+    private LabelTemplate findTemplate(String id) {
+        return labelTemplateRepository.findById(id).orElseThrow(() -> notFound(id));
+    }
+
+    private InternalBaseException notFound(String id) {
+        return new InternalBaseException(InternalResponseCode.LABEL_TEMPLATE_NOT_FOUND, HttpStatus.NOT_FOUND, "Label template not found: " + id);
+    }
+
+    private LabelTemplateResponse toResponse(CompiledLabelTemplate compiled, LocalDateTime updatedAt) {
+        return new LabelTemplateResponse(compiled.id(), compiled.content(), compiled.placeholders(), updatedAt);
+    }
+}
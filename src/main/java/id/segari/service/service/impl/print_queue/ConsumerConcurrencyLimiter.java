@@ -0,0 +1,59 @@
+package id.segari.service.service.impl.print_queue;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps how many printer consumers may be sending to USB at the same time. Unlike a {@link java.util.concurrent.Semaphore}
+ * the limit can be lowered while permits are held; holders finish normally and new acquires wait until usage drops.
+ */
+public class ConsumerConcurrencyLimiter {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private int limit;
+    private int inUse;
+
+    public ConsumerConcurrencyLimiter(int limit) {
+        setLimit(limit);
+    }
+
+    public void setLimit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Consumer concurrency must be positive");
+        lock.lock();
+        try {
+            this.limit = limit;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inUse >= limit) available.await();
+            inUse++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inUse--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inUse() {
+        lock.lock();
+        try {
+            return inUse;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
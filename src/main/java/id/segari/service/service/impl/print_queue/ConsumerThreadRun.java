@@ -1,29 +1,296 @@
 package id.segari.service.service.impl.print_queue;
 
+import id.segari.service.common.dto.printer.print.PrintBatchResult;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.config.PrintQueueConfig;
+import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.LabelTemplateService;
 import id.segari.service.service.PrinterService;
+import id.segari.service.service.impl.zpl_printer.ZplBufferWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class ConsumerThreadRun implements Runnable{
-    private final LinkedBlockingQueue<PrinterPrintRequest> queue;
+    private static final Logger log = LoggerFactory.getLogger(ConsumerThreadRun.class);
+    private static final long OFFLINE_CHECK_INTERVAL_MS = 250;
+    private static final long STEAL_CHECK_INTERVAL_MS = 100;
+
+    private final int printerId;
+    private final PrintJobQueue queue;
     private final PrinterService printerService;
+    private final PrintQueueConfig printQueueConfig;
+    private final PrintQueueJournal printQueueJournal;
+    private final PrintJobTracker printJobTracker;
+    private final PrintDeadLetterQueue printDeadLetterQueue;
+    private final ConsumerConcurrencyLimiter concurrencyLimiter;
+    private final PrintWorkStealer workStealer;
+    private final LabelTemplateService labelTemplateService;
+    private PrintJob carryOver;
+    // Jobs taken off the queue that are not printed, dead-lettered or handed back yet
+    private final Set<PrintJob> held = new LinkedHashSet<>();
+    private volatile boolean removed;
 
-    public ConsumerThreadRun(LinkedBlockingQueue<PrinterPrintRequest> queue, PrinterService printerService) {
+    public ConsumerThreadRun(int printerId, PrintJobQueue queue, PrinterService printerService,
+                             PrintQueueConfig printQueueConfig, PrintQueueJournal printQueueJournal,
+                             PrintJobTracker printJobTracker, PrintDeadLetterQueue printDeadLetterQueue,
+                             ConsumerConcurrencyLimiter concurrencyLimiter, PrintWorkStealer workStealer,
+                             LabelTemplateService labelTemplateService) {
+        this.printerId = printerId;
         this.queue = queue;
         this.printerService = printerService;
+        this.printQueueConfig = printQueueConfig;
+        this.printQueueJournal = printQueueJournal;
+        this.printJobTracker = printJobTracker;
+        this.printDeadLetterQueue = printDeadLetterQueue;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.workStealer = workStealer;
+        this.labelTemplateService = labelTemplateService;
     }
 
     @Override
     public void run() {
         while (!Thread.currentThread().isInterrupted()) {
             try {
-                final PrinterPrintRequest request = queue.take();
-                printerService.print(request);
+                awaitPrinterReady();
+                final List<PrintJob> drained = printQueueConfig.isBatchEnabled() ? drainBatch() : List.of(takeOrSteal());
+                held.addAll(drained);
+                deliver(drained);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
-            } catch (Exception _) {}
+            } catch (Exception e) {
+                log.error("Consumer of printer {} failed, failing {} held job(s)", printerId, held.size(), e);
+                for (PrintJob job : held) {
+                    try {
+                        fail(job, e.getMessage());
+                    } catch (RuntimeException failure) {
+                        log.error("Could not fail print job {} of printer {}: {}", job.sequence(), printerId, failure.getMessage());
+                    }
+                }
+            }
+            held.clear();
+        }
+        if (carryOver != null) {
+            discardIfRemoved(List.of(carryOver));
+            carryOver = null;
+        }
+    }
+
+    /**
+     * Marks the printer's queue as removed, so the jobs this consumer still holds (waiting for the printer, backing
+     * off or kept for the next batch) are failed and acked once it is interrupted. Without it, as on shutdown,
+     * they stay in the journal to be restored on the next start.
+     */
+    void markRemoved() {
+        removed = true;
+    }
+
+    /**
+     * Holds the queue while the printer is offline or reports it cannot take a job (paused, buffer full, ...).
+     * Jobs restored from the journal usually arrive before the printer is reconnected and wait here too.
+     */
+    private void awaitPrinterReady() throws InterruptedException {
+        while (!printerService.isReady(printerId)) {
+            TimeUnit.MILLISECONDS.sleep(OFFLINE_CHECK_INTERVAL_MS);
+        }
+    }
+
+    /**
+     * Waits for the next job of this printer; while there is none, tries to take over group-routed work
+     * from a busier member of the printer's group.
+     */
+    private PrintJob takeOrSteal() throws InterruptedException {
+        while (true) {
+            final PrintJob job = queue.poll(STEAL_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            if (job != null) return job;
+            final PrintJob stolen = workStealer.steal(printerId);
+            if (stolen != null) {
+                log.debug("Printer {} took over job {} from printer {}", printerId, stolen.sequence(), stolen.request().id());
+                printJobTracker.moved(stolen, printerId);
+                return stolen;
+            }
+        }
+    }
+
+    /**
+     * Takes the next job, then keeps collecting ready jobs until the job/byte limit is hit or the
+     * linger time runs out. A job that would overflow the byte limit is kept for the next batch.
+     */
+    private List<PrintJob> drainBatch() throws InterruptedException {
+        final List<PrintJob> batch = new ArrayList<>();
+        final PrintJob first = carryOver != null ? carryOver : takeOrSteal();
+        carryOver = null;
+        batch.add(first);
+
+        final int maxJobs = printQueueConfig.getBatchMaxJobs();
+        final int maxBytes = printQueueConfig.getBatchMaxBytes();
+        int batchBytes = estimatedBytes(first);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(printQueueConfig.getBatchLingerMs());
+        while (batch.size() < maxJobs && batchBytes < maxBytes) {
+            final long remaining = deadline - System.nanoTime();
+            final PrintJob next;
+            try {
+                next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            } catch (InterruptedException e) {
+                discardIfRemoved(batch);
+                throw e;
+            }
+            if (next == null) break;
+            if (batchBytes + estimatedBytes(next) > maxBytes) {
+                carryOver = next;
+                break;
+            }
+            batch.add(next);
+            batchBytes += estimatedBytes(next);
+        }
+        return batch;
+    }
+
+    private int estimatedBytes(PrintJob job) {
+        final PrinterPrintRequest request = job.request();
+        if (!request.isTemplated()) return ZplBufferWriter.encodedLength(request.command());
+        try {
+            return labelTemplateService.estimateSize(request.templateId(), request.variables());
+        } catch (RuntimeException e) {
+            // Deleted template or lookup failure: the job is rejected before it is sent, its size does not matter
+            return 0;
+        }
+    }
+
+    /**
+     * Prints the jobs, retrying the ones that failed with exponential backoff and full jitter. A failure
+     * that left the printer disconnected or not ready does not use up an attempt: the queue is paused until it is back.
+     * Jobs that are still failing after {@code print.queue.retry-max-attempts} go to the dead-letter queue.
+     * Jobs are acknowledged in the journal of the printer they were queued for, even when a group member printed them.
+     */
+    private void deliver(List<PrintJob> drained) throws InterruptedException {
+        final List<PrintJob> jobs = withoutStaleTemplates(drained);
+        if (jobs.isEmpty()) return;
+        queue.started(jobs.size());
+        try {
+            deliverWithRetry(jobs);
+        } finally {
+            queue.finished(jobs.size());
+        }
+    }
+
+    private void deliverWithRetry(List<PrintJob> jobs) throws InterruptedException {
+        List<PrintJob> pending = jobs;
+        int attempt = 0;
+        try {
+            while (true) {
+                attempt++;
+                for (PrintJob job : pending) printJobTracker.printing(job);
+                final PrintBatchResult result;
+                // Only the USB send counts against the limit, so an offline printer or a backoff never holds a slot
+                concurrencyLimiter.acquire();
+                try {
+                    result = send(pending);
+                } finally {
+                    concurrencyLimiter.release();
+                }
+                final List<PrintJob> failed = new ArrayList<>();
+                for (int i = 0; i < pending.size(); i++) {
+                    final PrintJob job = pending.get(i);
+                    if (result.isPrinted(i)) {
+                        printJobTracker.done(job);
+                        printQueueJournal.ack(job.request().id(), job.sequence());
+                        held.remove(job);
+                    } else {
+                        failed.add(job);
+                    }
+                }
+                if (failed.isEmpty()) return;
+                pending = failed;
+
+                if (!printerService.isReady(printerId)) {
+                    for (PrintJob job : failed) printJobTracker.retrying(job, result.error());
+                    // Group-routed jobs go back to the queue where other members of the group can take them over
+                    final List<PrintJob> grouped = failed.stream().filter(job -> job.request().isGrouped()).toList();
+                    if (!grouped.isEmpty()) queue.requeue(grouped);
+                    grouped.forEach(held::remove);
+                    failed.removeAll(grouped);
+                    log.warn("Printer {} is offline or not ready, holding {} job(s), released {} to its group: {}", printerId, failed.size(), grouped.size(), result.error());
+                    if (failed.isEmpty()) return;
+                    attempt--;
+                    awaitPrinterReady();
+                } else if (attempt >= printQueueConfig.getRetryMaxAttempts()) {
+                    for (PrintJob job : failed) deadLetter(job, attempt, result.error());
+                    return;
+                } else {
+                    log.warn("Print failed on printer {} (attempt {}), retrying {} job(s): {}", printerId, attempt, failed.size(), result.error());
+                    for (PrintJob job : failed) printJobTracker.retrying(job, result.error());
+                    TimeUnit.MILLISECONDS.sleep(backoffMs(attempt));
+                }
+            }
+        } catch (InterruptedException e) {
+            // Interrupted while holding jobs that were not sent yet or are waiting for a retry
+            discardIfRemoved(pending);
+            throw e;
         }
     }
+
+    /**
+     * Templates can be edited or deleted after a job was queued. A job whose variables no longer fit its template
+     * can never print, so it is dead-lettered on its own instead of failing (and retrying) the whole batch.
+     */
+    private List<PrintJob> withoutStaleTemplates(List<PrintJob> jobs) {
+        final List<PrintJob> valid = new ArrayList<>(jobs.size());
+        for (PrintJob job : jobs) {
+            final PrinterPrintRequest request = job.request();
+            try {
+                if (request.isTemplated()) labelTemplateService.validateVariables(request.templateId(), request.variables());
+                valid.add(job);
+            } catch (InternalBaseException e) {
+                deadLetter(job, 0, e.getMessage());
+            }
+        }
+        return valid;
+    }
+
+    private PrintBatchResult send(List<PrintJob> jobs) {
+        try {
+            if (jobs.size() == 1) {
+                final PrinterPrintRequest request = jobs.getFirst().request();
+                // A job taken over from another group member still names its original printer
+                printerService.print(request.id() == printerId ? request : request.withPrinterId(printerId));
+                return new PrintBatchResult(1, 1, null);
+            }
+            final List<PrinterPrintRequest> requests = jobs.stream().map(PrintJob::request).toList();
+            return printerService.printBatch(printerId, requests);
+        } catch (Exception e) {
+            return new PrintBatchResult(jobs.size(), 0, e.getMessage());
+        }
+    }
+
+    private long backoffMs(int attempt) {
+        final long initial = Math.max(1, printQueueConfig.getRetryInitialBackoffMs());
+        final long ceiling = Math.min(printQueueConfig.getRetryMaxBackoffMs(), initial << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /** Fails and acks held jobs of a removed queue, like the jobs drained from it; see {@link #markRemoved()}. */
+    private void discardIfRemoved(List<PrintJob> jobs) {
+        if (!removed) return;
+        for (PrintJob job : jobs) fail(job, "Removed from queue");
+    }
+
+    private void fail(PrintJob job, String error) {
+        printQueueJournal.ack(job.request().id(), job.sequence());
+        printJobTracker.failed(job, error);
+    }
+
+    private void deadLetter(PrintJob job, int attempts, String error) {
+        log.error("Print job dead-lettered: printerId={}, orderId={}, attempts={}, error={}", printerId, job.request().orderId(), attempts, error);
+        printDeadLetterQueue.add(printerId, job, attempts, error);
+        fail(job, error);
+        held.remove(job);
+    }
 }
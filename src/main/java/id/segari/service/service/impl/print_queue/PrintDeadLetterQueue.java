@@ -0,0 +1,65 @@
+package id.segari.service.service.impl.print_queue;
+
+import id.segari.service.common.dto.queue.DeadLetterJobResponse;
+import id.segari.service.config.PrintQueueConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jobs that ran out of retry attempts, kept per printer (oldest dropped beyond
+ * {@code print.queue.dead-letter-max-size}) until they are replayed or cleared.
+ */
+@Component
+public class PrintDeadLetterQueue {
+    private static final Logger log = LoggerFactory.getLogger(PrintDeadLetterQueue.class);
+
+    private final PrintQueueConfig printQueueConfig;
+    private final Map<Integer, Deque<DeadLetterJobResponse>> deadLettersByPrinterId = new ConcurrentHashMap<>();
+
+    public PrintDeadLetterQueue(PrintQueueConfig printQueueConfig) {
+        this.printQueueConfig = printQueueConfig;
+    }
+
+    public void add(int printerId, PrintJob job, int attempts, String error) {
+        restore(new DeadLetterJobResponse(job.sequence(), printerId, job.request(), attempts, error, LocalDateTime.now()));
+    }
+
+    public void restore(DeadLetterJobResponse deadLetter) {
+        final int printerId = deadLetter.printerId();
+        final Deque<DeadLetterJobResponse> deadLetters = deadLettersByPrinterId.computeIfAbsent(printerId, k -> new ArrayDeque<>());
+        synchronized (deadLetters) {
+            deadLetters.addLast(deadLetter);
+            while (deadLetters.size() > printQueueConfig.getDeadLetterMaxSize()) {
+                final DeadLetterJobResponse dropped = deadLetters.removeFirst();
+                log.warn("Dead-letter queue for printer {} is full, dropping job {} (orderId={})", printerId, dropped.jobId(), dropped.request().orderId());
+            }
+        }
+    }
+
+    public List<DeadLetterJobResponse> get(int printerId) {
+        final Deque<DeadLetterJobResponse> deadLetters = deadLettersByPrinterId.get(printerId);
+        if (deadLetters == null) return List.of();
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    public List<DeadLetterJobResponse> drain(int printerId) {
+        final Deque<DeadLetterJobResponse> deadLetters = deadLettersByPrinterId.get(printerId);
+        if (deadLetters == null) return List.of();
+        synchronized (deadLetters) {
+            final List<DeadLetterJobResponse> drained = new ArrayList<>(deadLetters);
+            deadLetters.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package id.segari.service.service.impl.print_queue;
+
+import id.segari.service.common.dto.printer.print.PrintJobState;
+import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.config.PrintQueueConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers recently queued jobs by order id and a hash of printer and label content, so a resubmitted
+ * label (STOMP redelivery, frontend retry) is detected at enqueue time in O(1). Entries live for
+ * {@code print.queue.idempotency-window-ms}, bounded by {@code idempotency-max-entries} oldest-first.
+ * A resubmission of a job that failed is let through as a retry.
+ */
+@Component
+public class PrintIdempotencyGuard {
+    public static final long NO_DUPLICATE = -1;
+
+    private final PrintQueueConfig printQueueConfig;
+    private final PrintJobTracker printJobTracker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    public PrintIdempotencyGuard(PrintQueueConfig printQueueConfig, PrintJobTracker printJobTracker) {
+        this.printQueueConfig = printQueueConfig;
+        this.printJobTracker = printJobTracker;
+    }
+
+    /**
+     * Registers the job unless an equal request is still live.
+     *
+     * @return {@link #NO_DUPLICATE} when the job was registered, otherwise the id of the earlier job
+     */
+    public long claim(PrinterPrintRequest request, long jobId) {
+        if (!printQueueConfig.isIdempotencyEnabled()) return NO_DUPLICATE;
+        final Key key = keyOf(request);
+        final long now = System.nanoTime();
+        lock.lock();
+        try {
+            evictExpired(now);
+            final Entry existing = entries.get(key);
+            if (existing != null && isLive(existing.jobId())) return existing.jobId();
+            entries.remove(key);
+            entries.put(key, new Entry(jobId, now + TimeUnit.MILLISECONDS.toNanos(printQueueConfig.getIdempotencyWindowMs())));
+            while (entries.size() > printQueueConfig.getIdempotencyMaxEntries()) {
+                entries.remove(entries.firstEntry().getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return NO_DUPLICATE;
+    }
+
+    /** Forgets a claim whose job never made it into the queue. */
+    public void release(PrinterPrintRequest request, long jobId) {
+        if (!printQueueConfig.isIdempotencyEnabled()) return;
+        final Key key = keyOf(request);
+        lock.lock();
+        try {
+            final Entry existing = entries.get(key);
+            if (existing != null && existing.jobId() == jobId) entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Requests with equal keys are duplicates of each other. */
+    Key keyOf(PrinterPrintRequest request) {
+        return new Key(request.orderId(), contentHash(request));
+    }
+
+    private boolean isLive(long jobId) {
+        // Jobs no longer in the history are long finished, so a resubmission is treated as a new label
+        return printJobTracker.findByJobId(jobId).map(status -> status.state() != PrintJobState.FAILED).orElse(false);
+    }
+
+    private void evictExpired(long now) {
+        final Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            if (oldest.next().expiresAtNanos() - now > 0) break;
+            oldest.remove();
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over printer id (or group id for group-routed jobs, which land on whichever member is
+     * least busy) and label content; variables are hashed in key order.
+     */
+    private static long contentHash(PrinterPrintRequest request) {
+        long hash = 0xcbf29ce484222325L;
+        hash = request.isGrouped() ? mix(hash, request.groupId()) : mix(hash, request.id());
+        if (request.isTemplated()) {
+            hash = mix(hash, request.templateId());
+            if (request.variables() != null) {
+                for (Map.Entry<String, String> variable : new TreeMap<>(request.variables()).entrySet()) {
+                    hash = mix(hash, variable.getKey());
+                    hash = mix(hash, variable.getValue());
+                }
+            }
+        } else {
+            hash = mix(hash, request.command());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, CharSequence text) {
+        if (text == null) return mix(hash, -1);
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash, text.length());
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    record Key(String orderId, long contentHash) {
+    }
+
+    private record Entry(long jobId, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,9 @@
+package id.segari.service.service.impl.print_queue;
+
+import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+
+public record PrintJob(long sequence, PrinterPrintRequest request, long enqueuedAtNanos) {
+    public PrintJob(long sequence, PrinterPrintRequest request) {
+        this(sequence, request, System.nanoTime());
+    }
+}
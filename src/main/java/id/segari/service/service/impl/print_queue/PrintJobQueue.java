@@ -0,0 +1,244 @@
+package id.segari.service.service.impl.print_queue;
+
+import id.segari.service.common.dto.printer.print.PrintPriority;
+import id.segari.service.common.dto.queue.QueueLaneStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking print job queue with one FIFO lane per {@link PrintPriority}. Dequeues use smooth weighted
+ * round-robin across the non-empty lanes, so an urgent job waits behind at most a few lower-lane jobs
+ * while bulk work is never starved. Capacity covers all lanes together and can be changed while the
+ * queue is in use; shrinking below the current size never drops jobs, new offers are simply refused
+ * until the queue drains under the limit.
+ */
+public class PrintJobQueue {
+    private static final PrintPriority[] PRIORITIES = PrintPriority.values();
+    private static final double WAIT_EWMA_ALPHA = 0.2;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Lane[] lanes = new Lane[PRIORITIES.length];
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int capacity;
+    private int size;
+
+    public PrintJobQueue(int capacity) {
+        for (int i = 0; i < lanes.length; i++) lanes[i] = new Lane(PRIORITIES[i].weight());
+        setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Queue capacity must be positive");
+        this.capacity = capacity;
+    }
+
+    public boolean offer(PrintJob job) {
+        lock.lock();
+        try {
+            if (size >= capacity) return false;
+            lanes[job.request().priority().ordinal()].jobs.addLast(job);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adds all jobs, or none of them when they do not fit in the remaining capacity together. */
+    public boolean offerAll(List<PrintJob> jobs) {
+        lock.lock();
+        try {
+            if (size + jobs.size() > capacity) return false;
+            for (PrintJob job : jobs) lanes[job.request().priority().ordinal()].jobs.addLast(job);
+            size += jobs.size();
+            notEmpty.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PrintJob take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) notEmpty.await();
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PrintJob poll() {
+        lock.lock();
+        try {
+            return size == 0 ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PrintJob poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Puts jobs a consumer handed back at the head of their lanes, regardless of capacity. */
+    public void requeue(List<PrintJob> jobs) {
+        lock.lock();
+        try {
+            for (int i = jobs.size() - 1; i >= 0; i--) {
+                final PrintJob job = jobs.get(i);
+                lanes[job.request().priority().ordinal()].jobs.addFirst(job);
+                size++;
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes the oldest group-routed job from the highest non-empty lane; pinned jobs are never handed out. */
+    public PrintJob steal() {
+        lock.lock();
+        try {
+            for (Lane lane : lanes) {
+                final Iterator<PrintJob> jobs = lane.jobs.iterator();
+                while (jobs.hasNext()) {
+                    final PrintJob job = jobs.next();
+                    if (!job.request().isGrouped()) continue;
+                    jobs.remove();
+                    size--;
+                    return job;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void started(int jobs) {
+        inFlight.addAndGet(jobs);
+    }
+
+    public void finished(int jobs) {
+        inFlight.addAndGet(-jobs);
+    }
+
+    public boolean isBusy() {
+        return inFlight.get() > 0;
+    }
+
+    /** Jobs waiting plus jobs the consumer is currently printing. */
+    public int outstanding() {
+        return size() + inFlight.get();
+    }
+
+    public int drainTo(Collection<? super PrintJob> target) {
+        lock.lock();
+        try {
+            final int drained = size;
+            for (Lane lane : lanes) {
+                target.addAll(lane.jobs);
+                lane.jobs.clear();
+                lane.currentWeight = 0;
+            }
+            size = 0;
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Pending jobs, highest lane first. */
+    public List<PrintJob> snapshot() {
+        lock.lock();
+        try {
+            final List<PrintJob> jobs = new ArrayList<>(size);
+            for (Lane lane : lanes) jobs.addAll(lane.jobs);
+            return jobs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<PrintPriority, QueueLaneStatus> laneStatuses() {
+        final long now = System.nanoTime();
+        final Map<PrintPriority, QueueLaneStatus> statuses = new EnumMap<>(PrintPriority.class);
+        lock.lock();
+        try {
+            for (int i = 0; i < lanes.length; i++) {
+                final Lane lane = lanes[i];
+                final PrintJob oldest = lane.jobs.peekFirst();
+                final long oldestWaitMs = oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(now - oldest.enqueuedAtNanos());
+                statuses.put(PRIORITIES[i], new QueueLaneStatus(lane.jobs.size(), oldestWaitMs, Math.round(lane.averageWaitMs)));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return statuses;
+    }
+
+    private PrintJob dequeue() {
+        int totalWeight = 0;
+        Lane selected = null;
+        for (Lane lane : lanes) {
+            if (lane.jobs.isEmpty()) continue;
+            lane.currentWeight += lane.weight;
+            totalWeight += lane.weight;
+            if (selected == null || lane.currentWeight > selected.currentWeight) selected = lane;
+        }
+        selected.currentWeight -= totalWeight;
+        final PrintJob job = selected.jobs.pollFirst();
+        if (selected.jobs.isEmpty()) selected.currentWeight = 0;
+        size--;
+        final double waitMs = (System.nanoTime() - job.enqueuedAtNanos()) / 1_000_000.0;
+        selected.averageWaitMs += WAIT_EWMA_ALPHA * (waitMs - selected.averageWaitMs);
+        return job;
+    }
+
+    private static final class Lane {
+        private final int weight;
+        private final ArrayDeque<PrintJob> jobs = new ArrayDeque<>();
+        private int currentWeight;
+        private double averageWaitMs;
+
+        private Lane(int weight) {
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package id.segari.service.service.impl.print_queue;
+
+import id.segari.service.common.dto.printer.print.PrintJobState;
+import id.segari.service.common.dto.printer.print.PrintJobStatusResponse;
+import id.segari.service.config.PrintQueueConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static id.segari.service.common.dto.printer.PrinterTopicConstants.JOB_TOPIC;
+
+/**
+ * Bounded in-memory history of print jobs. Entries are indexed by job id and order id, evicted oldest-first
+ * beyond {@code print.queue.job-history-size} and swept once finished for longer than
+ * {@code job-history-ttl-ms}. Every state transition is pushed to the job topic.
+ */
+@Component
+public class PrintJobTracker {
+    private static final Logger log = LoggerFactory.getLogger(PrintJobTracker.class);
+    private static final long SWEEP_INTERVAL_MS = 30_000;
+
+    private final PrintQueueConfig printQueueConfig;
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, TrackedJob> jobsById = new LinkedHashMap<>();
+    private final Map<String, List<TrackedJob>> jobsByOrderId = new HashMap<>();
+    private ScheduledFuture<?> sweepTask;
+
+    public PrintJobTracker(PrintQueueConfig printQueueConfig, SimpMessagingTemplate simpMessagingTemplate,
+                           ScheduledExecutorService scheduledExecutorService) {
+        this.printQueueConfig = printQueueConfig;
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    @PostConstruct
+    public void start() {
+        sweepTask = scheduledExecutorService.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public PrintJobStatusResponse queued(int printerId, PrintJob job) {
+        final TrackedJob tracked = new TrackedJob(job.sequence(), printerId, job.request().orderId());
+        lock.lock();
+        try {
+            jobsById.put(tracked.jobId, tracked);
+            jobsByOrderId.computeIfAbsent(tracked.orderId, k -> new ArrayList<>(1)).add(tracked);
+            while (jobsById.size() > printQueueConfig.getJobHistorySize()) {
+                remove(jobsById.firstEntry().getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return publish(tracked);
+    }
+
+    public void printing(PrintJob job) {
+        final TrackedJob tracked = get(job.sequence());
+        if (tracked == null) return;
+        tracked.state = PrintJobState.PRINTING;
+        tracked.attempts++;
+        if (tracked.startedAt == null) tracked.startedAt = LocalDateTime.now();
+        publish(tracked);
+    }
+
+    public void moved(PrintJob job, int printerId) {
+        final TrackedJob tracked = get(job.sequence());
+        if (tracked == null) return;
+        tracked.printerId = printerId;
+        publish(tracked);
+    }
+
+    public void retrying(PrintJob job, String error) {
+        final TrackedJob tracked = get(job.sequence());
+        if (tracked == null) return;
+        tracked.state = PrintJobState.RETRYING;
+        tracked.error = error;
+        publish(tracked);
+    }
+
+    public void done(PrintJob job) {
+        finish(job, PrintJobState.DONE, null);
+    }
+
+    public void failed(PrintJob job, String error) {
+        finish(job, PrintJobState.FAILED, error);
+    }
+
+    public Optional<PrintJobStatusResponse> findByJobId(long jobId) {
+        return Optional.ofNullable(get(jobId)).map(TrackedJob::toResponse);
+    }
+
+    public List<PrintJobStatusResponse> findByOrderId(String orderId) {
+        lock.lock();
+        try {
+            final List<TrackedJob> jobs = jobsByOrderId.get(orderId);
+            if (jobs == null) return List.of();
+            return jobs.stream().map(TrackedJob::toResponse).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(PrintJob job, PrintJobState state, String error) {
+        final TrackedJob tracked = get(job.sequence());
+        if (tracked == null) return;
+        tracked.state = state;
+        tracked.error = error;
+        tracked.finishedAt = LocalDateTime.now();
+        tracked.finishedAtNanos = System.nanoTime();
+        publish(tracked);
+    }
+
+    private TrackedJob get(long jobId) {
+        lock.lock();
+        try {
+            return jobsById.get(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sweep() {
+        final long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(printQueueConfig.getJobHistoryTtlMs());
+        lock.lock();
+        try {
+            final List<TrackedJob> expired = new ArrayList<>();
+            for (TrackedJob tracked : jobsById.values()) {
+                if (tracked.state.isFinished() && tracked.finishedAtNanos - cutoff < 0) expired.add(tracked);
+            }
+            expired.forEach(this::remove);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(TrackedJob tracked) {
+        jobsById.remove(tracked.jobId);
+        final List<TrackedJob> sameOrder = jobsByOrderId.get(tracked.orderId);
+        if (sameOrder == null) return;
+        sameOrder.remove(tracked);
+        if (sameOrder.isEmpty()) jobsByOrderId.remove(tracked.orderId);
+    }
+
+    private PrintJobStatusResponse publish(TrackedJob tracked) {
+        final PrintJobStatusResponse response = tracked.toResponse();
+        try {
+            simpMessagingTemplate.convertAndSend(JOB_TOPIC, response);
+        } catch (Exception e) {
+            log.debug("Unable to publish print job status: {}", e.getMessage());
+        }
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweepTask != null) sweepTask.cancel(false);
+    }
+
+    private static final class TrackedJob {
+        private final long jobId;
+        private volatile int printerId;
+        private final String orderId;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private volatile PrintJobState state = PrintJobState.QUEUED;
+        private volatile int attempts;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedAtNanos;
+        private volatile String error;
+
+        private TrackedJob(long jobId, int printerId, String orderId) {
+            this.jobId = jobId;
+            this.printerId = printerId;
+            this.orderId = orderId;
+        }
+
+        private PrintJobStatusResponse toResponse() {
+            return new PrintJobStatusResponse(jobId, printerId, orderId, state, attempts, queuedAt, startedAt, finishedAt, error);
+        }
+    }
+}
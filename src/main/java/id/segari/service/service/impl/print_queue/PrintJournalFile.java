@@ -0,0 +1,333 @@
+package id.segari.service.service.impl.print_queue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of one printer's queue. Each record is
+ * {@code [int payloadLength][byte type][long sequence][payload][int crc32c]}; a zero length or a bad
+ * checksum marks the end of the valid log, which covers torn writes after a crash.
+ * <p>
+ * Compaction never rewrites a file in place: live records are written to a temporary file, closed by a
+ * snapshot record, forced and atomically renamed to the next generation, and only then is the old one
+ * deleted. On startup the newest generation that ends its snapshot is used and older ones are removed; a
+ * generation without one (a compaction that did not finish) is discarded in favour of the previous one.
+ * Mapped files cannot be deleted on Windows until the mapping is collected, so leftover generations are
+ * cleaned up on the next compaction or startup.
+ */
+final class PrintJournalFile {
+    private static final Logger log = LoggerFactory.getLogger(PrintJournalFile.class);
+    private static final Pattern FILE_NAME = Pattern.compile("printer-(-?\\d+)-(\\d+)\\.journal");
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final int INITIAL_SIZE = 1024 * 1024;
+    private static final int COMPACT_MIN_BYTES = 256 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    static final byte ENQUEUE = 1;
+    static final byte ACK = 2;
+    // Ends the live records copied by a compaction; its sequence is the number of records before it
+    private static final byte SNAPSHOT = 3;
+
+    private final int printerId;
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, byte[]> live = new LinkedHashMap<>();
+    private final CRC32C crc = new CRC32C();
+    private List<CompletableFuture<Void>> pendingCommits = new ArrayList<>();
+    private long generation;
+    private Path path;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private int deadRecords;
+    private boolean dirty;
+
+    private PrintJournalFile(int printerId, Path directory) {
+        this.printerId = printerId;
+        this.directory = directory;
+    }
+
+    static PrintJournalFile open(Path directory, int printerId) throws IOException {
+        final PrintJournalFile journal = new PrintJournalFile(printerId, directory);
+        final List<Long> generations = generationsOf(directory, printerId);
+        // A snapshot that was never renamed into place belongs to a compaction that did not finish
+        try (DirectoryStream<Path> unfinished = Files.newDirectoryStream(directory, "printer-" + printerId + "-*.journal" + TEMPORARY_SUFFIX)) {
+            for (Path file : unfinished) Files.deleteIfExists(file);
+        }
+        int recovered = -1;
+        for (int i = generations.size() - 1; i >= 0 && recovered < 0; i--) {
+            if (journal.recover(generations.get(i))) recovered = i;
+        }
+        if (recovered < 0) {
+            // Nothing usable: start after the newest name so a discarded file is never reused
+            journal.generation = generations.isEmpty() ? 0 : generations.getLast() + 1;
+            journal.map(journal.fileFor(journal.generation), INITIAL_SIZE);
+        }
+        for (long stale : generations) {
+            if (stale != journal.generation) journal.deleteQuietly(journal.fileFor(stale));
+        }
+        return journal;
+    }
+
+    static List<Integer> printerIdsIn(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> FILE_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .distinct()
+                    .toList();
+        }
+    }
+
+    /**
+     * Enqueue records that have not been acknowledged, in append order, as raw payloads.
+     */
+    List<LiveRecord> liveRecords() {
+        lock.lock();
+        try {
+            final List<LiveRecord> records = new ArrayList<>(live.size());
+            live.forEach((sequence, payload) -> records.add(new LiveRecord(sequence, payload)));
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void append(byte type, long sequence, byte[] payload, CompletableFuture<Void> commit) {
+        lock.lock();
+        try {
+            writeRecord(type, sequence, payload);
+            if (type == ENQUEUE) {
+                live.put(sequence, payload);
+            } else if (live.remove(sequence) != null) {
+                deadRecords += 2;
+            }
+            dirty = true;
+            if (commit != null) pendingCommits.add(commit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void ack(long sequence) {
+        append(ACK, sequence, EMPTY, null);
+    }
+
+    /**
+     * Forces dirty pages to disk and completes every commit that was waiting on them. Appends that
+     * arrive while the force is running are picked up by the next flush.
+     */
+    void flush() {
+        final MappedByteBuffer toForce;
+        final List<CompletableFuture<Void>> commits;
+        lock.lock();
+        try {
+            if (!dirty) return;
+            dirty = false;
+            toForce = mapped;
+            commits = pendingCommits;
+            pendingCommits = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            toForce.force();
+            for (CompletableFuture<Void> commit : commits) commit.complete(null);
+        } catch (Exception e) {
+            for (CompletableFuture<Void> commit : commits) commit.completeExceptionally(e);
+        }
+    }
+
+    boolean needsCompaction() {
+        lock.lock();
+        try {
+            return mapped.position() > COMPACT_MIN_BYTES && deadRecords > live.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void compact() throws IOException {
+        lock.lock();
+        try {
+            final Path previous = path;
+            final FileChannel previousChannel = channel;
+            final long next = generation + 1;
+            final Path temporary = temporaryFileFor(next);
+            final Path target = fileFor(next);
+            mapped.force();
+
+            final ByteBuffer snapshot = ByteBuffer.allocate(liveBytes() + HEADER_BYTES + TRAILER_BYTES);
+            for (var entry : live.entrySet()) writeRecord(snapshot, ENQUEUE, entry.getKey(), entry.getValue());
+            writeRecord(snapshot, SNAPSHOT, live.size(), EMPTY);
+            snapshot.flip();
+            final int snapshotBytes = snapshot.remaining();
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (snapshot.hasRemaining()) out.write(snapshot);
+                out.force(true);
+            }
+            // Until this rename the previous generation is the only complete one on disk
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            map(target, Math.max(INITIAL_SIZE, snapshotBytes * 2L));
+            mapped.position(snapshotBytes);
+            generation = next;
+            deadRecords = 0;
+            previousChannel.close();
+            deleteQuietly(previous);
+            log.debug("Compacted print journal for printer {}: {} live jobs, generation {}", printerId, live.size(), generation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            mapped.force();
+            channel.close();
+            for (CompletableFuture<Void> commit : pendingCommits) commit.complete(null);
+            pendingCommits.clear();
+        } catch (IOException e) {
+            log.warn("Error closing print journal for printer {}: {}", printerId, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays one generation into {@link #live} and maps it for appending. A compacted generation (any but 0)
+     * is rejected, leaving the journal unopened, unless it contains its snapshot record.
+     */
+    private boolean recover(long candidate) throws IOException {
+        final Path file = fileFor(candidate);
+        final ByteBuffer view = ByteBuffer.wrap(Files.readAllBytes(file));
+        boolean snapshotComplete = candidate == 0;
+        while (view.remaining() >= HEADER_BYTES + TRAILER_BYTES) {
+            final int start = view.position();
+            final int length = view.getInt();
+            if (length < 0 || length > view.remaining() - Byte.BYTES - Long.BYTES - TRAILER_BYTES) break;
+            final byte type = view.get();
+            final long sequence = view.getLong();
+            final byte[] payload = new byte[length];
+            view.get(payload);
+            final int checksum = view.getInt();
+            if ((type != ENQUEUE && type != ACK && type != SNAPSHOT) || checksum != checksum(type, sequence, payload)) {
+                view.position(start);
+                break;
+            }
+            if (type == ENQUEUE) {
+                live.put(sequence, payload);
+            } else if (type == SNAPSHOT) {
+                snapshotComplete = true;
+            } else if (live.remove(sequence) != null) {
+                deadRecords += 2;
+            }
+        }
+        if (!snapshotComplete) {
+            log.warn("Print journal {} ends before its compaction snapshot, falling back to the previous generation", file.getFileName());
+            live.clear();
+            deadRecords = 0;
+            return false;
+        }
+        generation = candidate;
+        map(file, INITIAL_SIZE);
+        mapped.position(view.position());
+        return true;
+    }
+
+    private void writeRecord(byte type, long sequence, byte[] payload) {
+        ensureCapacity(HEADER_BYTES + payload.length + TRAILER_BYTES);
+        writeRecord(mapped, type, sequence, payload);
+    }
+
+    private void writeRecord(ByteBuffer target, byte type, long sequence, byte[] payload) {
+        target.putInt(payload.length)
+                .put(type)
+                .putLong(sequence)
+                .put(payload)
+                .putInt(checksum(type, sequence, payload));
+    }
+
+    private int checksum(byte type, long sequence, byte[] payload) {
+        crc.reset();
+        crc.update(type);
+        for (int shift = 56; shift >= 0; shift -= 8) crc.update((int) (sequence >>> shift));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (mapped.remaining() >= bytes) return;
+        try {
+            final int position = mapped.position();
+            map(path, Math.max(mapped.capacity() * 2L, (long) position + bytes));
+            mapped.position(position);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to grow print journal for printer " + printerId, e);
+        }
+    }
+
+    private void map(Path file, long size) throws IOException {
+        if (channel == null || !file.equals(path)) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            path = file;
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+
+    private int liveBytes() {
+        int bytes = 0;
+        for (byte[] payload : live.values()) bytes += HEADER_BYTES + payload.length + TRAILER_BYTES;
+        return bytes;
+    }
+
+    private Path fileFor(long generation) {
+        return directory.resolve("printer-" + printerId + "-" + generation + ".journal");
+    }
+
+    private Path temporaryFileFor(long generation) {
+        return directory.resolve("printer-" + printerId + "-" + generation + ".journal" + TEMPORARY_SUFFIX);
+    }
+
+    private static List<Long> generationsOf(Path directory, int printerId) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> FILE_NAME.matcher(file.getFileName().toString()))
+                    .filter(matcher -> matcher.matches() && Integer.parseInt(matcher.group(1)) == printerId)
+                    .map(matcher -> Long.parseLong(matcher.group(2)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Old print journal {} is still mapped, it will be removed later", file.getFileName());
+        }
+    }
+
+    record LiveRecord(long sequence, byte[] payload) {}
+}
@@ -0,0 +1,144 @@
+package id.segari.service.service.impl.print_queue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.config.PrintQueueConfig;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional write-ahead journal for the print queues ({@code print.queue.journal-enabled}). Every enqueue is
+ * appended to the printer's memory-mapped journal before it becomes visible to the consumer, and every
+ * finished or dropped job is acknowledged. A single flusher thread forces dirty journals every
+ * {@code journal-flush-interval-ms} (group commit), so an enqueue only pays for a memory copy while
+ * {@link #append} callers that need durability can wait on the returned future.
+ */
+@Component
+public class PrintQueueJournal {
+    private static final Logger log = LoggerFactory.getLogger(PrintQueueJournal.class);
+    private static final long COMPACT_CHECK_INTERVAL_MS = 30_000;
+
+    private final PrintQueueConfig printQueueConfig;
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, PrintJournalFile> journalByPrinterId = new ConcurrentHashMap<>();
+    private final Path directory;
+    private volatile boolean running;
+    private Thread flusherThread;
+
+    public PrintQueueJournal(PrintQueueConfig printQueueConfig, ObjectMapper objectMapper) {
+        this.printQueueConfig = printQueueConfig;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(printQueueConfig.getJournalDirectory());
+    }
+
+    public boolean isEnabled() {
+        return printQueueConfig.isJournalEnabled();
+    }
+
+    /**
+     * Opens every journal found on disk and returns the jobs that were never acknowledged, per printer and in
+     * enqueue order. Starts the flusher; must be called once before the first {@link #append}.
+     */
+    public Map<Integer, List<PrintJob>> replay() {
+        if (!isEnabled()) return Map.of();
+        final Map<Integer, List<PrintJob>> pendingByPrinterId = new HashMap<>();
+        try {
+            Files.createDirectories(directory);
+            for (int printerId : PrintJournalFile.printerIdsIn(directory)) {
+                final PrintJournalFile journal = getJournal(printerId);
+                final List<PrintJob> pending = new ArrayList<>();
+                for (PrintJournalFile.LiveRecord record : journal.liveRecords()) {
+                    pending.add(new PrintJob(record.sequence(), objectMapper.readValue(record.payload(), PrinterPrintRequest.class)));
+                }
+                if (!pending.isEmpty()) pendingByPrinterId.put(printerId, pending);
+            }
+        } catch (IOException e) {
+            log.error("Unable to replay print journal from {}: {}", directory, e.getMessage());
+        }
+        startFlusher();
+        return pendingByPrinterId;
+    }
+
+    public CompletableFuture<Void> append(int printerId, PrintJob job) {
+        if (!isEnabled()) return CompletableFuture.completedFuture(null);
+        try {
+            final CompletableFuture<Void> commit = new CompletableFuture<>();
+            getJournal(printerId).append(PrintJournalFile.ENQUEUE, job.sequence(), objectMapper.writeValueAsBytes(job.request()), commit);
+            return commit;
+        } catch (IOException | IllegalStateException e) {
+            // The journal could not be opened or written; callers waiting for durability see the failure
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public void ack(int printerId, long sequence) {
+        if (!isEnabled()) return;
+        final PrintJournalFile journal = journalByPrinterId.get(printerId);
+        if (journal != null) journal.ack(sequence);
+    }
+
+    private PrintJournalFile getJournal(int printerId) {
+        return journalByPrinterId.computeIfAbsent(printerId, id -> {
+            try {
+                return PrintJournalFile.open(directory, id);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to open print journal for printer " + id, e);
+            }
+        });
+    }
+
+    private void startFlusher() {
+        running = true;
+        flusherThread = Thread.ofPlatform().daemon().name("print-journal-flusher").start(this::runFlusher);
+    }
+
+    private void runFlusher() {
+        final long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(printQueueConfig.getJournalFlushIntervalMs());
+        long nextCompactCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COMPACT_CHECK_INTERVAL_MS);
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            for (PrintJournalFile journal : journalByPrinterId.values()) journal.flush();
+            if (System.nanoTime() - nextCompactCheck >= 0) {
+                compactAll();
+                nextCompactCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COMPACT_CHECK_INTERVAL_MS);
+            }
+        }
+    }
+
+    private void compactAll() {
+        for (PrintJournalFile journal : journalByPrinterId.values()) {
+            try {
+                if (journal.needsCompaction()) journal.compact();
+            } catch (Exception e) {
+                log.warn("Print journal compaction failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (flusherThread != null) {
+            LockSupport.unpark(flusherThread);
+            try {
+                flusherThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (PrintJournalFile journal : journalByPrinterId.values()) journal.close();
+        journalByPrinterId.clear();
+    }
+}
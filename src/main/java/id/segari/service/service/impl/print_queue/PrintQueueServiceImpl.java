@@ -1,63 +1,311 @@
 package id.segari.service.service.impl.print_queue;
 
 import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.printer.print.BulkPrintItemResult;
+import id.segari.service.common.dto.printer.print.BulkPrintResponse;
+import id.segari.service.common.dto.printer.print.PrintJobStatusResponse;
+import id.segari.service.common.dto.printer.print.PrintPriority;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.common.dto.queue.DeadLetterJobResponse;
+import id.segari.service.common.dto.queue.DuplicatePrintPolicy;
+import id.segari.service.common.dto.queue.PrinterGroupRequest;
+import id.segari.service.common.dto.queue.PrinterGroupResponse;
+import id.segari.service.common.dto.queue.QueueConfigRequest;
+import id.segari.service.common.dto.queue.QueueConfigResponse;
+import id.segari.service.common.dto.queue.QueueLaneStatus;
+import id.segari.service.config.PrintQueueConfig;
 import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.LabelTemplateService;
 import id.segari.service.service.PrintQueueService;
 import id.segari.service.service.PrinterService;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
 public class PrintQueueServiceImpl implements PrintQueueService {
-    private static final int MAX_QUEUES = 20;
-    private static final int MAX_QUEUE_SIZE = 500;
+    private static final Logger log = LoggerFactory.getLogger(PrintQueueServiceImpl.class);
 
-    private final Map<Integer, LinkedBlockingQueue<PrinterPrintRequest>> printerQueues = new ConcurrentHashMap<>();
-    private final Map<Integer, Thread> consumerThreads = new ConcurrentHashMap<>();
+    private final Map<Integer, PrintJobQueue> printerQueues = new ConcurrentHashMap<>();
+    private final Map<Integer, Consumer> consumers = new ConcurrentHashMap<>();
+    private final AtomicLong jobSequence = new AtomicLong();
     private final PrinterService printerService;
+    private final PrintQueueConfig printQueueConfig;
+    private final PrintQueueJournal printQueueJournal;
+    private final PrintJobTracker printJobTracker;
+    private final PrintDeadLetterQueue printDeadLetterQueue;
+    private final ConsumerConcurrencyLimiter concurrencyLimiter;
+    private final LabelTemplateService labelTemplateService;
+    private final PrintIdempotencyGuard printIdempotencyGuard;
+    private final PrinterGroupRegistry printerGroupRegistry;
+    private final Validator validator;
 
-    public PrintQueueServiceImpl(PrinterService printerService) {
+    public PrintQueueServiceImpl(PrinterService printerService, PrintQueueConfig printQueueConfig,
+                                 PrintQueueJournal printQueueJournal, PrintJobTracker printJobTracker,
+                                 PrintDeadLetterQueue printDeadLetterQueue, LabelTemplateService labelTemplateService,
+                                 PrintIdempotencyGuard printIdempotencyGuard, PrinterGroupRegistry printerGroupRegistry,
+                                 Validator validator) {
         this.printerService = printerService;
+        this.printQueueConfig = printQueueConfig;
+        this.printQueueJournal = printQueueJournal;
+        this.printJobTracker = printJobTracker;
+        this.printDeadLetterQueue = printDeadLetterQueue;
+        this.concurrencyLimiter = new ConsumerConcurrencyLimiter(printQueueConfig.getMaxConcurrentConsumers());
+        this.labelTemplateService = labelTemplateService;
+        this.printIdempotencyGuard = printIdempotencyGuard;
+        this.printerGroupRegistry = printerGroupRegistry;
+        this.validator = validator;
+    }
+
+    @PostConstruct
+    public void replayJournal() {
+        final Map<Integer, List<PrintJob>> pendingByPrinterId = printQueueJournal.replay();
+        for (Map.Entry<Integer, List<PrintJob>> entry : pendingByPrinterId.entrySet()) {
+            // Restored queues are not subject to the queue limit, their jobs were already accepted
+            final PrintJobQueue queue = printerQueues.computeIfAbsent(entry.getKey(), this::createQueue);
+            for (PrintJob job : entry.getValue()) {
+                jobSequence.accumulateAndGet(job.sequence(), Math::max);
+                printJobTracker.queued(entry.getKey(), job);
+                printIdempotencyGuard.claim(job.request(), job.sequence());
+                if (!queue.offer(job)) {
+                    printQueueJournal.ack(entry.getKey(), job.sequence());
+                    printJobTracker.failed(job, "Queue is full");
+                }
+            }
+            log.info("Restored {} pending print jobs for printer {} from journal", queue.size(), entry.getKey());
+        }
+    }
+
+    @Override
+    public PrintJobStatusResponse addToQueue(PrinterPrintRequest request) {
+        return enqueue(request).status();
     }
 
     @Override
-    public void addToQueue(PrinterPrintRequest request) {
+    public CompletableFuture<PrintJobStatusResponse> addToQueueDurably(PrinterPrintRequest request) {
+        final Enqueued enqueued = enqueue(request);
+        return enqueued.commit().thenApply(_ -> enqueued.status());
+    }
+
+    private Enqueued enqueue(PrinterPrintRequest submitted) {
+        final PrinterPrintRequest request = validateAndRoute(submitted);
         final int printerId = request.id();
-        if (printerQueues.size() >= MAX_QUEUES){
-            throw new InternalBaseException(InternalResponseCode.PRINT_QUEUE_MAX_QUEUE, HttpStatus.BAD_REQUEST, "Cannot create queue for printer " + printerId + ". Maximum queues limit reached.");
+        final PrintJobQueue queue = getQueue(printerId);
+        final PrintJob job = new PrintJob(jobSequence.incrementAndGet(), request);
+        final long duplicateOf = printIdempotencyGuard.claim(request, job.sequence());
+        if (duplicateOf != PrintIdempotencyGuard.NO_DUPLICATE) {
+            return new Enqueued(handleDuplicate(request, duplicateOf), CompletableFuture.completedFuture(null));
         }
-        final LinkedBlockingQueue<PrinterPrintRequest> queue = getQueue(printerId);
-        final boolean added = queue.offer(request);
+        // Journal first so a job is never visible to the consumer (and acked) before its enqueue record exists
+        final CompletableFuture<Void> commit = printQueueJournal.append(printerId, job);
+        final PrintJobStatusResponse status = printJobTracker.queued(printerId, job);
+        final boolean added = queue.offer(job);
         if (!added) {
-            throw new InternalBaseException(InternalResponseCode.PRINT_QUEUE_MAX_JOB, HttpStatus.BAD_REQUEST, "Queue for printer " + printerId + " is full. Maximum capacity: " + MAX_QUEUE_SIZE);
+            printQueueJournal.ack(printerId, job.sequence());
+            printJobTracker.failed(job, "Queue is full");
+            printIdempotencyGuard.release(request, job.sequence());
+            throw new InternalBaseException(InternalResponseCode.PRINT_QUEUE_MAX_JOB, HttpStatus.BAD_REQUEST, "Queue for printer " + printerId + " is full. Maximum capacity: " + queue.getCapacity());
+        }
+        return new Enqueued(status, commit);
+    }
+
+    private record Enqueued(PrintJobStatusResponse status, CompletableFuture<Void> commit) {
+    }
+
+    @Override
+    public BulkPrintResponse addAllToQueue(List<PrinterPrintRequest> requests) {
+        return enqueueAll(requests).response();
+    }
+
+    @Override
+    public CompletableFuture<BulkPrintResponse> addAllToQueueDurably(List<PrinterPrintRequest> requests) {
+        final BulkEnqueued enqueued = enqueueAll(requests);
+        return enqueued.commit().thenApply(_ -> enqueued.response());
+    }
+
+    private BulkEnqueued enqueueAll(List<PrinterPrintRequest> submitted) {
+        final BulkPrintItemResult[] results = new BulkPrintItemResult[submitted.size()];
+        final PrinterPrintRequest[] routed = new PrinterPrintRequest[submitted.size()];
+        final Map<Integer, List<Integer>> indexesByPrinterId = new LinkedHashMap<>();
+        // A label repeated within the batch takes the outcome of its first occurrence
+        final Map<PrintIdempotencyGuard.Key, Integer> firstIndexByKey = new HashMap<>();
+        final Map<Integer, Integer> repeatedIndexes = new LinkedHashMap<>();
+        for (int i = 0; i < submitted.size(); i++) {
+            try {
+                routed[i] = validateAndRoute(submitted.get(i));
+                getQueue(routed[i].id());
+                if (printQueueConfig.isIdempotencyEnabled()) {
+                    final Integer first = firstIndexByKey.putIfAbsent(printIdempotencyGuard.keyOf(routed[i]), i);
+                    if (first != null) {
+                        repeatedIndexes.put(i, first);
+                        continue;
+                    }
+                }
+                indexesByPrinterId.computeIfAbsent(routed[i].id(), k -> new ArrayList<>()).add(i);
+            } catch (InternalBaseException e) {
+                results[i] = BulkPrintItemResult.rejected(e.getCode(), e.getMessage());
+            }
+        }
+        final List<CompletableFuture<Void>> commits = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> entry : indexesByPrinterId.entrySet()) {
+            commits.addAll(enqueueForPrinter(entry.getKey(), entry.getValue(), routed, results));
+        }
+        repeatedIndexes.forEach((index, first) -> results[index] = repeatedResult(routed[index], results[first]));
+        final int accepted = (int) Arrays.stream(results).filter(BulkPrintItemResult::isAccepted).count();
+        final BulkPrintResponse response = new BulkPrintResponse(accepted, results.length - accepted, List.of(results));
+        return new BulkEnqueued(response, CompletableFuture.allOf(commits.toArray(CompletableFuture[]::new)));
+    }
+
+    /** Queues the requests routed to one printer with a single all-or-nothing insertion. */
+    private List<CompletableFuture<Void>> enqueueForPrinter(int printerId, List<Integer> indexes,
+                                                            PrinterPrintRequest[] routed, BulkPrintItemResult[] results) {
+        final List<PrintJob> jobs = new ArrayList<>(indexes.size());
+        final List<Integer> jobIndexes = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            final PrintJob job = new PrintJob(jobSequence.incrementAndGet(), routed[index]);
+            final long duplicateOf = printIdempotencyGuard.claim(routed[index], job.sequence());
+            if (duplicateOf == PrintIdempotencyGuard.NO_DUPLICATE) {
+                jobs.add(job);
+                jobIndexes.add(index);
+                continue;
+            }
+            try {
+                results[index] = BulkPrintItemResult.accepted(handleDuplicate(routed[index], duplicateOf).jobId());
+            } catch (InternalBaseException e) {
+                results[index] = BulkPrintItemResult.rejected(e.getCode(), e.getMessage());
+            }
+        }
+        if (jobs.isEmpty()) return List.of();
+
+        final PrintJobQueue queue = getQueue(printerId);
+        final List<CompletableFuture<Void>> commits = new ArrayList<>(jobs.size());
+        for (PrintJob job : jobs) {
+            commits.add(printQueueJournal.append(printerId, job));
+            printJobTracker.queued(printerId, job);
+        }
+        if (queue.offerAll(jobs)) {
+            for (int i = 0; i < jobs.size(); i++) results[jobIndexes.get(i)] = BulkPrintItemResult.accepted(jobs.get(i).sequence());
+            return commits;
+        }
+        final String error = "Queue for printer " + printerId + " cannot take " + jobs.size() + " more jobs. Maximum capacity: " + queue.getCapacity();
+        for (int i = 0; i < jobs.size(); i++) {
+            final PrintJob job = jobs.get(i);
+            printQueueJournal.ack(printerId, job.sequence());
+            printJobTracker.failed(job, "Queue is full");
+            printIdempotencyGuard.release(job.request(), job.sequence());
+            results[jobIndexes.get(i)] = BulkPrintItemResult.rejected(InternalResponseCode.PRINT_QUEUE_MAX_JOB, error);
+        }
+        return List.of();
+    }
+
+    private BulkPrintItemResult repeatedResult(PrinterPrintRequest request, BulkPrintItemResult first) {
+        if (!first.isAccepted() || printQueueConfig.getIdempotencyPolicy() == DuplicatePrintPolicy.COALESCE) return first;
+        return BulkPrintItemResult.rejected(InternalResponseCode.DUPLICATE_PRINT_JOB,
+                "Order " + request.orderId() + " was already submitted to printer " + request.id() + " as job " + first.jobId());
+    }
+
+    private record BulkEnqueued(BulkPrintResponse response, CompletableFuture<Void> commit) {
+    }
+
+    /** Checks a request the same way for REST and STOMP, and resolves group-routed requests to a printer. */
+    private PrinterPrintRequest validateAndRoute(PrinterPrintRequest request) {
+        final Set<ConstraintViolation<PrinterPrintRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            final String error = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            throw new InternalBaseException(InternalResponseCode.VALIDATION_ERROR, HttpStatus.BAD_REQUEST, error);
+        }
+        // Reject unknown templates and bad variables now rather than failing the job on the printer
+        if (request.isTemplated()) labelTemplateService.validateVariables(request.templateId(), request.variables());
+        return request.isGrouped() ? request.withPrinterId(route(request.groupId())) : request;
+    }
+
+    /** Least outstanding jobs among the ready members, or among all members when none is ready. */
+    private int route(String groupId) {
+        final List<Integer> members = printerGroupRegistry.members(groupId).orElseThrow(() -> printerGroupNotFound(groupId));
+        final List<Integer> ready = members.stream().filter(printerService::isReady).toList();
+        return (ready.isEmpty() ? members : ready).stream()
+                .min(Comparator.comparingInt(this::outstanding))
+                .orElseThrow();
+    }
+
+    private int outstanding(int printerId) {
+        final PrintJobQueue queue = printerQueues.get(printerId);
+        return queue != null ? queue.outstanding() : 0;
+    }
+
+    /**
+     * Called by an idle consumer: takes the oldest group-routed job from a sibling that is still printing
+     * or is offline, so a backlog on one printer drains through the others.
+     */
+    private PrintJob steal(int printerId) {
+        for (Integer siblingId : printerGroupRegistry.siblings(printerId)) {
+            final PrintJobQueue sibling = printerQueues.get(siblingId);
+            if (sibling == null || sibling.size() == 0) continue;
+            if (!sibling.isBusy() && printerService.isReady(siblingId)) continue;
+            final PrintJob stolen = sibling.steal();
+            if (stolen != null) return stolen;
         }
+        return null;
+    }
+
+    private PrintJobStatusResponse handleDuplicate(PrinterPrintRequest request, long duplicateOf) {
+        final InternalBaseException duplicate = new InternalBaseException(InternalResponseCode.DUPLICATE_PRINT_JOB, HttpStatus.CONFLICT,
+                "Order " + request.orderId() + " was already submitted to printer " + request.id() + " as job " + duplicateOf);
+        if (printQueueConfig.getIdempotencyPolicy() == DuplicatePrintPolicy.REJECT) throw duplicate;
+        log.debug("Coalesced duplicate print request: orderId={}, jobId={}", request.orderId(), duplicateOf);
+        return printJobTracker.findByJobId(duplicateOf).orElseThrow(() -> duplicate);
     }
 
-    private LinkedBlockingQueue<PrinterPrintRequest> getQueue(int printerId) {
+    private PrintJobQueue getQueue(int printerId) {
+        final PrintJobQueue existing = printerQueues.get(printerId);
+        if (existing != null) return existing;
+        // The queue limit only applies to printers that do not have a queue yet
         return printerQueues.computeIfAbsent(printerId, id -> {
-            final LinkedBlockingQueue<PrinterPrintRequest> newQueue = new LinkedBlockingQueue<>(MAX_QUEUE_SIZE);
-            startConsumerThread(id, newQueue);
-            return newQueue;
+            if (printerQueues.size() >= printQueueConfig.getMaxQueues()) {
+                throw new InternalBaseException(InternalResponseCode.PRINT_QUEUE_MAX_QUEUE, HttpStatus.BAD_REQUEST, "Cannot create queue for printer " + id + ". Maximum queues limit reached.");
+            }
+            return createQueue(id);
         });
     }
 
-    private void startConsumerThread(int printerId, LinkedBlockingQueue<PrinterPrintRequest> queue) {
-        final Thread consumerThread = Thread.ofVirtual().start(new ConsumerThreadRun(queue, printerService));
-        consumerThreads.put(printerId, consumerThread);
+    private PrintJobQueue createQueue(int printerId) {
+        final PrintJobQueue newQueue = new PrintJobQueue(printQueueConfig.getMaxQueueSize());
+        startConsumerThread(printerId, newQueue);
+        return newQueue;
+    }
+
+    private void startConsumerThread(int printerId, PrintJobQueue queue) {
+        final ConsumerThreadRun run = new ConsumerThreadRun(printerId, queue, printerService, printQueueConfig, printQueueJournal, printJobTracker, printDeadLetterQueue, concurrencyLimiter, this::steal, labelTemplateService);
+        consumers.put(printerId, new Consumer(run, Thread.ofVirtual().start(run)));
+    }
+
+    private record Consumer(ConsumerThreadRun run, Thread thread) {
     }
 
     @Override
     public int getQueueSize(int printerId) {
-        LinkedBlockingQueue<PrinterPrintRequest> queue = printerQueues.get(printerId);
+        PrintJobQueue queue = printerQueues.get(printerId);
         return queue != null ? queue.size() : 0;
     }
 
@@ -68,9 +316,9 @@ public class PrintQueueServiceImpl implements PrintQueueService {
 
     @Override
     public List<PrinterPrintRequest> getPendingJobs(int printerId) {
-        LinkedBlockingQueue<PrinterPrintRequest> queue = printerQueues.get(printerId);
+        PrintJobQueue queue = printerQueues.get(printerId);
         if (queue == null) return new ArrayList<>();
-        return new ArrayList<>(queue);
+        return queue.snapshot().stream().map(PrintJob::request).collect(Collectors.toCollection(ArrayList::new));
     }
 
     @Override
@@ -82,32 +330,145 @@ public class PrintQueueServiceImpl implements PrintQueueService {
                 ));
     }
 
+    @Override
+    public double getHighestFillRatio() {
+        double highest = 0;
+        for (PrintJobQueue queue : printerQueues.values()) {
+            highest = Math.max(highest, (double) queue.size() / Math.max(1, queue.getCapacity()));
+        }
+        return highest;
+    }
+
+    @Override
+    public Map<Integer, Map<PrintPriority, QueueLaneStatus>> getAllLaneStatuses() {
+        return printerQueues.entrySet().stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> entry.getValue().laneStatuses()
+                ));
+    }
+
     @Override
     public boolean clearQueue(int printerId) {
-        final LinkedBlockingQueue<PrinterPrintRequest> queue = printerQueues.get(printerId);
+        final PrintJobQueue queue = printerQueues.get(printerId);
         if (queue == null) return false;
-        queue.clear();
+        drainAndAck(queue);
         return true;
     }
 
     @Override
     public void clearAllQueues() {
-        for (Map.Entry<Integer, LinkedBlockingQueue<PrinterPrintRequest>> entry : printerQueues.entrySet()) {
-            entry.getValue().clear();
+        for (Map.Entry<Integer, PrintJobQueue> entry : printerQueues.entrySet()) {
+            drainAndAck(entry.getValue());
         }
     }
 
     @Override
     public void removePrinterQueue(int printerId) {
-        final Thread consumerThread = consumerThreads.remove(printerId);
-        if (consumerThread != null) consumerThread.interrupt();
-        printerQueues.remove(printerId);
+        final Consumer consumer = consumers.remove(printerId);
+        if (consumer != null) {
+            // The jobs the consumer still holds are dropped along with the queued ones
+            consumer.run().markRemoved();
+            consumer.thread().interrupt();
+        }
+        final PrintJobQueue queue = printerQueues.remove(printerId);
+        if (queue != null) drainAndAck(queue);
+    }
+
+    @Override
+    public List<PrintJobStatusResponse> getJobStatus(String orderId) {
+        return printJobTracker.findByOrderId(orderId);
+    }
+
+    @Override
+    public List<DeadLetterJobResponse> getDeadLetterJobs(int printerId) {
+        return printDeadLetterQueue.get(printerId);
+    }
+
+    @Override
+    public List<PrintJobStatusResponse> replayDeadLetterJobs(int printerId) {
+        final List<DeadLetterJobResponse> deadLetters = printDeadLetterQueue.drain(printerId);
+        final List<PrintJobStatusResponse> replayed = new ArrayList<>(deadLetters.size());
+        for (int i = 0; i < deadLetters.size(); i++) {
+            try {
+                replayed.add(addToQueue(deadLetters.get(i).request()));
+            } catch (InternalBaseException e) {
+                // Queue filled up; keep what was not replayed so it can be tried again later
+                for (DeadLetterJobResponse remaining : deadLetters.subList(i, deadLetters.size())) {
+                    printDeadLetterQueue.restore(remaining);
+                }
+                if (replayed.isEmpty()) throw e;
+                break;
+            }
+        }
+        return replayed;
+    }
+
+    @Override
+    public int clearDeadLetterJobs(int printerId) {
+        return printDeadLetterQueue.drain(printerId).size();
+    }
+
+    @Override
+    public QueueConfigResponse getConfig() {
+        return new QueueConfigResponse(printQueueConfig.getMaxQueues(), printQueueConfig.getMaxQueueSize(),
+                printQueueConfig.getMaxConcurrentConsumers(), concurrencyLimiter.inUse());
+    }
+
+    @Override
+    public synchronized QueueConfigResponse updateConfig(QueueConfigRequest request) {
+        if (request.maxQueues() != null) {
+            printQueueConfig.setMaxQueues(request.maxQueues());
+        }
+        if (request.maxQueueSize() != null) {
+            printQueueConfig.setMaxQueueSize(request.maxQueueSize());
+            for (PrintJobQueue queue : printerQueues.values()) queue.setCapacity(request.maxQueueSize());
+        }
+        if (request.maxConcurrentConsumers() != null) {
+            printQueueConfig.setMaxConcurrentConsumers(request.maxConcurrentConsumers());
+            concurrencyLimiter.setLimit(request.maxConcurrentConsumers());
+        }
+        log.info("Print queue config updated: maxQueues={}, maxQueueSize={}, maxConcurrentConsumers={}",
+                printQueueConfig.getMaxQueues(), printQueueConfig.getMaxQueueSize(), printQueueConfig.getMaxConcurrentConsumers());
+        return getConfig();
+    }
+
+    @Override
+    public List<PrinterGroupResponse> getPrinterGroups() {
+        return printerGroupRegistry.getAll();
+    }
+
+    @Override
+    public PrinterGroupResponse savePrinterGroup(String groupId, PrinterGroupRequest request) {
+        final PrinterGroupResponse group = printerGroupRegistry.save(groupId, request.printerIds());
+        log.info("Printer group {} saved with printers {}", groupId, group.printerIds());
+        return group;
+    }
+
+    @Override
+    public void deletePrinterGroup(String groupId) {
+        if (!printerGroupRegistry.remove(groupId)) throw printerGroupNotFound(groupId);
+    }
+
+    private InternalBaseException printerGroupNotFound(String groupId) {
+        return new InternalBaseException(InternalResponseCode.PRINTER_GROUP_NOT_FOUND, HttpStatus.NOT_FOUND, "Printer group not found: " + groupId);
+    }
+
+    private void drainAndAck(PrintJobQueue queue) {
+        final List<PrintJob> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        for (PrintJob job : dropped) {
+            // Jobs taken over from another group member are journaled under their original printer
+            printQueueJournal.ack(job.request().id(), job.sequence());
+            printJobTracker.failed(job, "Removed from queue");
+        }
     }
 
     @PreDestroy
     public void shutdown() {
-        for (Thread thread : consumerThreads.values()) thread.interrupt();
-        consumerThreads.clear();
+        // Pending jobs stay in the journal (when enabled) and are restored on the next start
+        for (Consumer consumer : consumers.values()) consumer.thread().interrupt();
+        consumers.clear();
         printerQueues.clear();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+package id.segari.service.service.impl.print_queue;
+
+import org.springframework.lang.Nullable;
+
+@FunctionalInterface
+interface PrintWorkStealer {
+    /** @return a group-routed job taken from a busier member of the printer's group, or {@code null} */
+    @Nullable
+    PrintJob steal(int printerId);
+}
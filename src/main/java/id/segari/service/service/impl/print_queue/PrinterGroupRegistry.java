@@ -0,0 +1,64 @@
+package id.segari.service.service.impl.print_queue;
+
+import id.segari.service.common.dto.queue.PrinterGroupResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Printers with the same media and label size that can print each other's group-routed jobs.
+ * A printer belongs to at most one group; adding it to another group moves it.
+ */
+@Component
+public class PrinterGroupRegistry {
+    private final Map<String, Set<Integer>> printerIdsByGroupId = new HashMap<>();
+    private final Map<Integer, String> groupIdByPrinterId = new HashMap<>();
+
+    public synchronized PrinterGroupResponse save(String groupId, List<Integer> printerIds) {
+        remove(groupId);
+        final Set<Integer> members = new TreeSet<>(printerIds);
+        for (Integer printerId : members) {
+            final String previous = groupIdByPrinterId.put(printerId, groupId);
+            if (previous != null) {
+                final Set<Integer> previousMembers = printerIdsByGroupId.get(previous);
+                previousMembers.remove(printerId);
+                if (previousMembers.isEmpty()) printerIdsByGroupId.remove(previous);
+            }
+        }
+        printerIdsByGroupId.put(groupId, members);
+        return new PrinterGroupResponse(groupId, List.copyOf(members));
+    }
+
+    public synchronized boolean remove(String groupId) {
+        final Set<Integer> members = printerIdsByGroupId.remove(groupId);
+        if (members == null) return false;
+        for (Integer printerId : members) groupIdByPrinterId.remove(printerId);
+        return true;
+    }
+
+    public synchronized Optional<List<Integer>> members(String groupId) {
+        final Set<Integer> members = printerIdsByGroupId.get(groupId);
+        return members == null ? Optional.empty() : Optional.of(List.copyOf(members));
+    }
+
+    /** @return the other members of the printer's group, empty when it is not in a group */
+    public synchronized List<Integer> siblings(int printerId) {
+        final String groupId = groupIdByPrinterId.get(printerId);
+        if (groupId == null) return List.of();
+        final List<Integer> siblings = new ArrayList<>(printerIdsByGroupId.get(groupId));
+        siblings.remove(Integer.valueOf(printerId));
+        return siblings;
+    }
+
+    public synchronized List<PrinterGroupResponse> getAll() {
+        return printerIdsByGroupId.entrySet().stream()
+                .map(entry -> new PrinterGroupResponse(entry.getKey(), List.copyOf(entry.getValue())))
+                .toList();
+    }
+}
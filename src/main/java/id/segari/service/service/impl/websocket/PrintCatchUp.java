@@ -0,0 +1,132 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.common.dto.printer.print.BulkPrintItemResult;
+import id.segari.service.common.dto.printer.print.BulkPrintResponse;
+import id.segari.service.common.dto.websocket.PrintCatchUpFrame;
+import id.segari.service.common.dto.websocket.PrintCatchUpPage;
+import id.segari.service.service.PrintCatchUpExternalService;
+import id.segari.service.service.PrintQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches the print frames a warehouse missed while its subscription was down, page by page from
+ * the backend, and queues those that did not also arrive live. Jobs the backend sent twice under different
+ * sequences are still coalesced by the idempotency guard. The gap is kept when catch-up has to stop (queues
+ * full, subscription lost, backend unreachable) and continued on the next resume, reconnect or retry.
+ */
+class PrintCatchUp {
+    private static final Logger log = LoggerFactory.getLogger(PrintCatchUp.class);
+
+    private final long warehouseId;
+    private final PrintSequenceTracker sequenceTracker;
+    private final PrintStompFlowControl flowControl;
+    private final PrintQueueService printQueueService;
+    private final PrintCatchUpExternalService catchUpExternalService;
+    private final ScheduledExecutorService scheduler;
+    private final int pageSize;
+    private final long retryIntervalMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final AtomicLong framesCaughtUp = new AtomicLong();
+
+    PrintCatchUp(long warehouseId, PrintSequenceTracker sequenceTracker, PrintStompFlowControl flowControl,
+                 PrintQueueService printQueueService, PrintCatchUpExternalService catchUpExternalService,
+                 ScheduledExecutorService scheduler, int pageSize, long retryIntervalMs) {
+        this.warehouseId = warehouseId;
+        this.sequenceTracker = sequenceTracker;
+        this.flowControl = flowControl;
+        this.printQueueService = printQueueService;
+        this.catchUpExternalService = catchUpExternalService;
+        this.scheduler = scheduler;
+        this.pageSize = pageSize;
+        this.retryIntervalMs = retryIntervalMs;
+    }
+
+    /** Starts a catch-up in the background; a request made while one is running makes it run again. */
+    void request() {
+        requested.set(true);
+        if (running.compareAndSet(false, true)) Thread.ofVirtual().name("print-catch-up-" + warehouseId).start(this::drainRequests);
+    }
+
+    long framesCaughtUp() {
+        return framesCaughtUp.get();
+    }
+
+    private void drainRequests() {
+        while (true) {
+            if (!requested.getAndSet(false)) {
+                running.set(false);
+                // Re-check: a request may have arrived between the flag and the release
+                if (requested.get() && running.compareAndSet(false, true)) continue;
+                return;
+            }
+            try {
+                catchUp();
+            } catch (Exception e) {
+                log.warn("Print catch-up for warehouse {} failed, retrying in {} ms: {}", warehouseId, retryIntervalMs, e.getMessage());
+                scheduler.schedule(() -> {
+                    if (flowControl.isAttached()) request();
+                }, retryIntervalMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void catchUp() {
+        final long gapsMarked = sequenceTracker.gapsMarked();
+        final OptionalLong start = sequenceTracker.catchUpCursor();
+        if (start.isEmpty()) return;
+        final long caughtUpBefore = framesCaughtUp.get();
+        long cursor = start.getAsLong();
+        while (true) {
+            final PrintCatchUpPage page = catchUpExternalService.getMissedFrames(warehouseId, cursor, pageSize);
+            for (PrintCatchUpFrame frame : page.frames()) {
+                if (!canQueue()) {
+                    log.info("Print catch-up for warehouse {} stopped after sequence {}, will continue on resume", warehouseId, cursor);
+                    return;
+                }
+                if (!merge(frame)) return;
+                if (frame.sequence() > cursor) cursor = frame.sequence();
+                sequenceTracker.advanceCatchUp(cursor);
+            }
+            // An empty page ends the gap even if the backend claims more, rather than asking for it forever
+            if (!page.hasMore() || page.frames().isEmpty()) break;
+        }
+        sequenceTracker.finishCatchUp(gapsMarked);
+        final long merged = framesCaughtUp.get() - caughtUpBefore;
+        if (merged > 0) log.info("Caught up {} missed print frames for warehouse {}", merged, warehouseId);
+    }
+
+    /** @return false when the frame did not fit in the queues, leaving it for the next catch-up */
+    private boolean merge(PrintCatchUpFrame frame) {
+        if (!sequenceTracker.claim(frame.sequence())) return true;
+        final BulkPrintResponse response;
+        try {
+            response = printQueueService.addAllToQueueDurably(frame.requests()).join();
+        } catch (RuntimeException e) {
+            sequenceTracker.release(frame.sequence());
+            throw e;
+        }
+        if (response.results().stream().anyMatch(result -> result.code().isQueueFull())) {
+            sequenceTracker.release(frame.sequence());
+            log.warn("Print queue full, pausing catch-up for warehouse {} at sequence {}", warehouseId, frame.sequence());
+            flowControl.pause();
+            return false;
+        }
+        response.results().stream().filter(result -> !result.isAccepted()).map(BulkPrintItemResult::error).distinct()
+                .forEach(reason -> log.error("Discarded missed print frame {} of warehouse {}: {}", frame.sequence(), warehouseId, reason));
+        framesCaughtUp.incrementAndGet();
+        flowControl.checkWatermark();
+        return true;
+    }
+
+    private boolean canQueue() {
+        return flowControl.isAttached() && !flowControl.isPaused();
+    }
+}
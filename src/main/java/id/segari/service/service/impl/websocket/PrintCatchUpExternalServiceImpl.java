@@ -0,0 +1,43 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.common.dto.external.SegariResponse;
+import id.segari.service.common.dto.websocket.PrintCatchUpPage;
+import id.segari.service.service.PrintCatchUpExternalService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+@Service
+public class PrintCatchUpExternalServiceImpl implements PrintCatchUpExternalService {
+    private static final String BASE_PATH = "/v1/warehouses/{warehouseId}/print-frames";
+    private static final ParameterizedTypeReference<SegariResponse<PrintCatchUpPage>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+
+    private final RestClient restClient;
+    private final String backendEndpoint;
+
+    public PrintCatchUpExternalServiceImpl(RestClient restClient, @Value("${segari.backend.endpoint}") String backendEndpoint) {
+        this.restClient = restClient;
+        this.backendEndpoint = backendEndpoint;
+    }
+
+    @Override
+    public PrintCatchUpPage getMissedFrames(final long warehouseId, final long afterSequence, final int size) {
+        final String url = UriComponentsBuilder.fromUriString(backendEndpoint)
+                .path(BASE_PATH)
+                .queryParam("afterSequence", afterSequence)
+                .queryParam("size", size)
+                .buildAndExpand(warehouseId)
+                .toUriString();
+        final SegariResponse<PrintCatchUpPage> response = restClient.get()
+                .uri(url)
+                .retrieve()
+                .body(RESPONSE_TYPE);
+        if (response == null || response.data() == null || response.data().frames() == null) {
+            throw new IllegalStateException("Empty print catch-up response for warehouse " + warehouseId);
+        }
+        return response.data();
+    }
+}
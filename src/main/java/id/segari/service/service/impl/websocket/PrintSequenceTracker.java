@@ -0,0 +1,86 @@
+package id.segari.service.service.impl.websocket;
+
+import org.springframework.lang.Nullable;
+
+import java.util.OptionalLong;
+import java.util.TreeSet;
+
+/**
+ * The print frame sequences of one warehouse that were already queued. It marks where a dropped
+ * subscription left off, so the gap can be fetched, and lets a frame that arrives both live and through
+ * catch-up be queued once. Sequences are expected to increase per warehouse; only the latest
+ * {@code capacity} are remembered and anything older is treated as handled. A tracker restored from the
+ * position saved before a restart starts with a gap after it, so the frames published while the service
+ * was down are caught up; that position also seeds a gap marked before any frame arrived.
+ */
+class PrintSequenceTracker {
+    private final int capacity;
+    private final TreeSet<Long> handled = new TreeSet<>();
+    @Nullable
+    private final Long restoredSequence;
+    private Long catchUpCursor;
+    private long gapsMarked;
+
+    PrintSequenceTracker(int capacity, @Nullable Long restoredSequence) {
+        this.capacity = capacity;
+        this.restoredSequence = restoredSequence;
+        if (restoredSequence != null) {
+            catchUpCursor = restoredSequence;
+            gapsMarked = 1;
+        }
+    }
+
+    /** @return false when the sequence was already handled */
+    synchronized boolean claim(long sequence) {
+        if (handled.size() >= capacity && sequence < handled.first()) return false;
+        if (!handled.add(sequence)) return false;
+        if (handled.size() > capacity) handled.pollFirst();
+        return true;
+    }
+
+    /** Forgets a claimed sequence whose frame could not be queued, so it is accepted when delivered again. */
+    synchronized void release(long sequence) {
+        handled.remove(sequence);
+    }
+
+    synchronized OptionalLong lastSequence() {
+        final Long last = lastHandled();
+        return last == null ? OptionalLong.empty() : OptionalLong.of(last);
+    }
+
+    /** Where to continue after a restart: the start of a pending gap, otherwise the latest handled sequence. */
+    synchronized OptionalLong resumePosition() {
+        final Long position = catchUpCursor != null ? catchUpCursor : lastHandled();
+        return position == null ? OptionalLong.empty() : OptionalLong.of(position);
+    }
+
+    /** Called when frames stop arriving; the gap starts after the latest handled sequence. */
+    synchronized void markGap() {
+        if (catchUpCursor == null) catchUpCursor = lastHandled();
+        gapsMarked++;
+    }
+
+    synchronized long gapsMarked() {
+        return gapsMarked;
+    }
+
+    /** The sequence the pending catch-up continues after, if there is a gap. */
+    synchronized OptionalLong catchUpCursor() {
+        return catchUpCursor == null ? OptionalLong.empty() : OptionalLong.of(catchUpCursor);
+    }
+
+    synchronized void advanceCatchUp(long sequence) {
+        if (catchUpCursor != null && sequence > catchUpCursor) catchUpCursor = sequence;
+    }
+
+    /** Closes the gap, unless frames stopped arriving again since the catch-up started. */
+    synchronized void finishCatchUp(long gapsMarkedAtStart) {
+        if (gapsMarked == gapsMarkedAtStart) catchUpCursor = null;
+    }
+
+    @Nullable
+    private Long lastHandled() {
+        if (handled.isEmpty()) return restoredSequence;
+        return restoredSequence == null ? handled.last() : Math.max(handled.last(), restoredSequence);
+    }
+}
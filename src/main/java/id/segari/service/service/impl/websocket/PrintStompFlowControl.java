@@ -0,0 +1,214 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.service.PrintQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-acknowledged subscription to a warehouse print topic on a (possibly shared) STOMP session; writes
+ * are serialized on the session because the STOMP client does not guard concurrent sends. Frames are ACKed once their job is durably
+ * queued and NACKed when it could not be committed, so the broker redelivers them instead of the label being lost.
+ * The subscription asks for a prefetch window, so the broker stops delivering once that many frames are
+ * unacknowledged. While the fullest printer queue is above the high watermark consumption is paused by holding
+ * the ACKs back, and frames that do not fit are parked unacknowledged; once the queues drain below the low
+ * watermark the parked frames are handled again and the held ACKs are sent, which opens the window. The
+ * subscription itself stays in place, so nothing published meanwhile is missed. Each SUBSCRIBE asks for a
+ * receipt, whose round trip is reported as a link RTT sample.
+ */
+public class PrintStompFlowControl {
+    private static final Logger log = LoggerFactory.getLogger(PrintStompFlowControl.class);
+    private static final String ACK_MODE = "client-individual";
+    private static final String PREFETCH_HEADER = "prefetch-count";
+    private static final AtomicLong RECEIPT_SEQUENCE = new AtomicLong();
+
+    private final String topic;
+    private final PrintQueueService printQueueService;
+    private final ScheduledExecutorService scheduler;
+    private final double highWatermark;
+    private final double lowWatermark;
+    private final long resumeCheckIntervalMs;
+    private final int prefetch;
+    private final Listener listener;
+
+    private StompSession session;
+    private StompFrameHandler frameHandler;
+    private StompSession.Subscription subscription;
+    private ScheduledFuture<?> resumeCheck;
+    private boolean paused;
+    private final List<String> heldAcks = new ArrayList<>();
+    private final List<Runnable> parkedFrames = new ArrayList<>();
+
+    public PrintStompFlowControl(String topic, PrintQueueService printQueueService, ScheduledExecutorService scheduler,
+                                 double highWatermark, double lowWatermark, long resumeCheckIntervalMs, int prefetch,
+                                 Listener listener) {
+        this.topic = topic;
+        this.printQueueService = printQueueService;
+        this.scheduler = scheduler;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = lowWatermark;
+        this.resumeCheckIntervalMs = resumeCheckIntervalMs;
+        this.prefetch = prefetch;
+        this.listener = listener;
+    }
+
+    /** Subscribes on the session; a no-op when this session already has the subscription. */
+    public synchronized void attach(StompSession session, StompFrameHandler frameHandler) {
+        if (this.session == session && subscription != null) return;
+        // Frames published while the previous session was down were not received
+        if (this.session != null) listener.onSubscriptionLost();
+        this.session = session;
+        this.frameHandler = frameHandler;
+        this.subscription = null;
+        // Frames left unacknowledged on the old session are redelivered by the broker
+        resetPause();
+        subscribe();
+        checkWatermark();
+    }
+
+    public synchronized void detach() {
+        resetPause();
+        if (subscription != null && session.isConnected()) {
+            try {
+                synchronized (session) {
+                    subscription.unsubscribe();
+                }
+            } catch (Exception e) {
+                log.warn("Unable to unsubscribe from {}: {}", topic, e.getMessage());
+            }
+        }
+        subscription = null;
+        session = null;
+    }
+
+    public synchronized boolean isAttached() {
+        return session != null && session.isConnected() && subscription != null;
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /** ACKs a frame whose job was queued, or holds the ACK back while paused. */
+    public synchronized void ack(StompHeaders frameHeaders) {
+        if (paused) {
+            final String ackId = ackIdOf(frameHeaders);
+            if (ackId != null) heldAcks.add(ackId);
+            return;
+        }
+        acknowledge(ackIdOf(frameHeaders), true);
+    }
+
+    public synchronized void nack(StompHeaders frameHeaders) {
+        acknowledge(ackIdOf(frameHeaders), false);
+    }
+
+    /**
+     * Keeps a frame that did not fit in the queues unacknowledged and pauses; {@code retry} handles it again
+     * on resume. The frame is dropped with its session, the broker then redelivers it.
+     */
+    public synchronized void park(Runnable retry) {
+        if (session == null) return;
+        parkedFrames.add(retry);
+        pause();
+    }
+
+    /** Pauses consumption when the queues have filled past the high watermark. */
+    public synchronized void checkWatermark() {
+        if (!paused && session != null && printQueueService.getHighestFillRatio() >= highWatermark) pause();
+    }
+
+    public synchronized void pause() {
+        if (!paused) {
+            paused = true;
+            log.info("Paused consumption of {}, print queues are above {}% full", topic, Math.round(highWatermark * 100));
+        }
+        if (resumeCheck == null) {
+            resumeCheck = scheduler.scheduleWithFixedDelay(this::resumeIfDrained, resumeCheckIntervalMs, resumeCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void resumeIfDrained() {
+        final List<Runnable> retries;
+        synchronized (this) {
+            if (session == null || !session.isConnected()) {
+                // A new session attaches its own subscription after reconnecting
+                resetPause();
+                return;
+            }
+            if (printQueueService.getHighestFillRatio() > lowWatermark) return;
+            cancelResumeCheck();
+            paused = false;
+            retries = List.copyOf(parkedFrames);
+            parkedFrames.clear();
+            heldAcks.forEach(ackId -> acknowledge(ackId, true));
+            heldAcks.clear();
+            log.info("Resumed consumption of {}", topic);
+        }
+        // Handled outside the lock, the frame handler calls back into ack and park
+        retries.forEach(Runnable::run);
+        listener.onResumed();
+    }
+
+    private void subscribe() {
+        final StompHeaders headers = new StompHeaders();
+        headers.setDestination(topic);
+        headers.setAck(ACK_MODE);
+        headers.set(PREFETCH_HEADER, String.valueOf(prefetch));
+        headers.setReceipt("subscribe-" + RECEIPT_SEQUENCE.incrementAndGet());
+        final long sentAt = System.nanoTime();
+        synchronized (session) {
+            subscription = session.subscribe(headers, frameHandler);
+        }
+        subscription.addReceiptTask(() -> listener.onRoundTrip(System.nanoTime() - sentAt));
+        listener.onSubscribed();
+    }
+
+    private void acknowledge(String ackId, boolean consumed) {
+        if (ackId == null || session == null || !session.isConnected()) return;
+        try {
+            synchronized (session) {
+                session.acknowledge(ackId, consumed);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to {} print frame {}: {}", consumed ? "ACK" : "NACK", ackId, e.getMessage());
+        }
+    }
+
+    // STOMP 1.2 frames carry an ack id, older brokers acknowledge by message id
+    private static String ackIdOf(StompHeaders frameHeaders) {
+        return frameHeaders.getAck() != null ? frameHeaders.getAck() : frameHeaders.getMessageId();
+    }
+
+    private void resetPause() {
+        cancelResumeCheck();
+        paused = false;
+        heldAcks.clear();
+        parkedFrames.clear();
+    }
+
+    private void cancelResumeCheck() {
+        if (resumeCheck == null) return;
+        resumeCheck.cancel(false);
+        resumeCheck = null;
+    }
+
+    /** Subscription events; all but {@link #onResumed()} are called while the flow control holds its lock. */
+    public interface Listener {
+        void onSubscribed();
+        /** Frames stopped arriving because the session was lost. */
+        void onSubscriptionLost();
+        /** Consumption continues after a pause. */
+        void onResumed();
+        void onRoundTrip(long nanos);
+    }
+}
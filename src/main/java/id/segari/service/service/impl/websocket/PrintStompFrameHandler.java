@@ -1,40 +1,164 @@
 package id.segari.service.service.impl.websocket;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import id.segari.service.common.dto.printer.print.BulkPrintItemResult;
+import id.segari.service.common.dto.printer.print.BulkPrintResponse;
+import id.segari.service.common.dto.printer.print.PrintJobStatusResponse;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.exception.InternalBaseException;
 import id.segari.service.service.PrintQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class PrintStompFrameHandler implements StompFrameHandler {
+    private static final Logger log = LoggerFactory.getLogger(PrintStompFrameHandler.class);
+    /** Per-warehouse frame sequence set by the backend, used to catch up on frames missed while disconnected. */
+    private static final String SEQUENCE_HEADER = "sequence";
 
     private final PrintQueueService printQueueService;
-    private final ObjectMapper objectMapper;
+    private final PrintStompPayloadDecoder payloadDecoder;
+    private final PrintStompFlowControl flowControl;
+    private final PrintSequenceTracker sequenceTracker;
+    private final Runnable onMessage;
 
-    public PrintStompFrameHandler(PrintQueueService printQueueService, ObjectMapper objectMapper) {
+    PrintStompFrameHandler(PrintQueueService printQueueService, PrintStompPayloadDecoder payloadDecoder,
+                           PrintStompFlowControl flowControl, PrintSequenceTracker sequenceTracker, Runnable onMessage) {
         this.printQueueService = printQueueService;
-        this.objectMapper = objectMapper;
+        this.payloadDecoder = payloadDecoder;
+        this.flowControl = flowControl;
+        this.sequenceTracker = sequenceTracker;
+        this.onMessage = onMessage;
     }
 
     @Override
     public Type getPayloadType(StompHeaders headers) {
-        return Object.class;
+        return byte[].class;
     }
 
     @Override
     public void handleFrame(StompHeaders headers, Object payload) {
+        final PrintStompPayloadDecoder.DecodedPrintFrame frame;
         try {
-            final String jsonString = new String((byte[]) payload);
-            final PrinterPrintRequest printRequest = objectMapper.readValue(jsonString, PrinterPrintRequest.class);
-            handlePrintRequest(printRequest);
-        } catch (Exception _) {}
+            frame = payloadDecoder.decode(headers, (byte[]) payload);
+        } catch (IOException e) {
+            // Redelivering a frame that can never be read would block the subscription, so drop it
+            log.error("Discarding unreadable print frame {}: {}", headers.getMessageId(), e.getMessage());
+            flowControl.ack(headers);
+            return;
+        }
+        final Long sequence = parseSequence(headers);
+        if (!claim(headers, sequence)) return;
+        if (frame.isBulk()) {
+            handleBulkPrintRequest(headers, sequence, frame.requests());
+        } else {
+            handlePrintRequest(headers, sequence, frame.request(), () -> handleFrame(headers, payload));
+        }
     }
 
-    private void handlePrintRequest(PrinterPrintRequest printRequest) {
-        printQueueService.addToQueue(printRequest);
-        WebSocketServiceImpl.lastMessageTime = LocalDateTime.now();
+    /** @return false when the frame was already queued through catch-up, in which case it is ACKed */
+    private boolean claim(StompHeaders headers, Long sequence) {
+        if (sequence == null || sequenceTracker.claim(sequence)) return true;
+        flowControl.ack(headers);
+        return false;
+    }
+
+    private void handlePrintRequest(StompHeaders headers, Long sequence, PrinterPrintRequest printRequest, Runnable retry) {
+        final CompletableFuture<PrintJobStatusResponse> queued;
+        try {
+            queued = printQueueService.addToQueueDurably(printRequest);
+        } catch (InternalBaseException e) {
+            if (e.getCode().isQueueFull()) {
+                log.warn("Print queue full, holding order {} until the queues drain: {}", printRequest.orderId(), e.getMessage());
+                park(sequence, retry);
+            } else {
+                log.error("Discarding print frame for order {}: {}", printRequest.orderId(), e.getMessage());
+                flowControl.ack(headers);
+            }
+            return;
+        } catch (RuntimeException e) {
+            log.error("Could not queue print frame for order {}, returning it to the broker: {}", printRequest.orderId(), e.getMessage());
+            nack(headers, sequence);
+            return;
+        }
+        onMessage.run();
+        queued.whenComplete((_, error) -> {
+            if (error == null) {
+                flowControl.ack(headers);
+            } else {
+                log.error("Print journal commit failed for order {}, returning it to the broker: {}", printRequest.orderId(), error.getMessage());
+                nack(headers, sequence);
+            }
+        });
+        flowControl.checkWatermark();
+    }
+
+    /**
+     * Items that did not fit in a queue are parked and only those are queued again on resume, so the items
+     * already queued are not printed twice however long the frame waits. The frame is ACKed once every item was
+     * queued or rejected for good.
+     */
+    private void handleBulkPrintRequest(StompHeaders headers, Long sequence, List<PrinterPrintRequest> printRequests) {
+        final CompletableFuture<BulkPrintResponse> queued;
+        try {
+            queued = printQueueService.addAllToQueueDurably(printRequests);
+        } catch (RuntimeException e) {
+            log.error("Could not queue bulk frame {}, returning it to the broker: {}", headers.getMessageId(), e.getMessage());
+            nack(headers, sequence);
+            return;
+        }
+        onMessage.run();
+        queued.whenComplete((response, error) -> {
+            if (error != null) {
+                log.error("Print journal commit failed for bulk frame {}, returning it to the broker: {}", headers.getMessageId(), error.getMessage());
+                nack(headers, sequence);
+                return;
+            }
+            final List<PrinterPrintRequest> unqueued = new ArrayList<>();
+            for (int i = 0; i < printRequests.size(); i++) {
+                if (response.results().get(i).code().isQueueFull()) unqueued.add(printRequests.get(i));
+            }
+            response.results().stream().filter(result -> !result.isAccepted() && !result.code().isQueueFull()).map(BulkPrintItemResult::error).distinct()
+                    .forEach(reason -> log.error("Discarded item of bulk frame {}: {}", headers.getMessageId(), reason));
+            if (!unqueued.isEmpty()) {
+                log.warn("Print queue full, holding {} item(s) of bulk frame {} until the queues drain ({} of {} queued)",
+                        unqueued.size(), headers.getMessageId(), response.accepted(), printRequests.size());
+                park(sequence, () -> {
+                    if (claim(headers, sequence)) handleBulkPrintRequest(headers, sequence, unqueued);
+                });
+                return;
+            }
+            flowControl.ack(headers);
+        });
+        flowControl.checkWatermark();
+    }
+
+    /** The frame was not queued, so its sequence must be accepted again when it is redelivered or caught up. */
+    private void nack(StompHeaders headers, Long sequence) {
+        if (sequence != null) sequenceTracker.release(sequence);
+        flowControl.nack(headers);
+    }
+
+    /** Leaves the frame unacknowledged until flow control resumes; its sequence is claimed again then. */
+    private void park(Long sequence, Runnable retry) {
+        if (sequence != null) sequenceTracker.release(sequence);
+        flowControl.park(retry);
+    }
+
+    private static Long parseSequence(StompHeaders headers) {
+        final String value = headers.getFirst(SEQUENCE_HEADER);
+        if (value == null) return null;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid print frame sequence '{}' on frame {}", value, headers.getMessageId());
+            return null;
+        }
     }
 }
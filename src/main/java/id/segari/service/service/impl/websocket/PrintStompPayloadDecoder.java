@@ -0,0 +1,75 @@
+package id.segari.service.service.impl.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes print frames straight from the payload bytes with readers built once per encoding. The encoding
+ * follows the frame's {@code content-type}: Smile ({@value #SMILE}) or CBOR ({@value #CBOR}) for binary
+ * frames, JSON otherwise. A frame holding an array is read element by element as a bulk submission.
+ */
+public class PrintStompPayloadDecoder {
+    static final String SMILE = "application/x-jackson-smile";
+    static final String CBOR = "application/cbor";
+
+    private final ObjectReader jsonReader;
+    private final ObjectReader smileReader;
+    private final ObjectReader cborReader;
+
+    public PrintStompPayloadDecoder(ObjectMapper objectMapper) {
+        this.jsonReader = objectMapper.readerFor(PrinterPrintRequest.class);
+        // Binary mappers share the application mapper's modules and settings
+        this.smileReader = objectMapper.copyWith(new SmileFactory()).readerFor(PrinterPrintRequest.class);
+        this.cborReader = objectMapper.copyWith(new CBORFactory()).readerFor(PrinterPrintRequest.class);
+    }
+
+    public DecodedPrintFrame decode(StompHeaders headers, byte[] payload) throws IOException {
+        final ObjectReader reader = readerFor(headers.getContentType());
+        try (JsonParser parser = reader.createParser(payload)) {
+            final JsonToken first = parser.nextToken();
+            if (first == null || first == JsonToken.VALUE_NULL) throw new IOException("Print frame has no print request");
+            if (first != JsonToken.START_ARRAY) return DecodedPrintFrame.single(reader.readValue(parser));
+            final List<PrinterPrintRequest> requests = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) requests.add(reader.readValue(parser));
+            if (parser.currentToken() != JsonToken.END_ARRAY) throw new IOException("Expected a print request object in bulk frame");
+            return DecodedPrintFrame.bulk(requests);
+        }
+    }
+
+    private ObjectReader readerFor(@Nullable MimeType contentType) {
+        if (contentType == null) return jsonReader;
+        return switch (contentType.getType() + "/" + contentType.getSubtype()) {
+            case SMILE -> smileReader;
+            case CBOR -> cborReader;
+            default -> jsonReader;
+        };
+    }
+
+    /** Either {@code request} (single frame) or {@code requests} (bulk frame) is set. */
+    public record DecodedPrintFrame(@Nullable PrinterPrintRequest request, @Nullable List<PrinterPrintRequest> requests) {
+        static DecodedPrintFrame single(PrinterPrintRequest request) {
+            return new DecodedPrintFrame(request, null);
+        }
+
+        static DecodedPrintFrame bulk(List<PrinterPrintRequest> requests) {
+            return new DecodedPrintFrame(null, requests);
+        }
+
+        public boolean isBulk() {
+            return requests != null;
+        }
+    }
+}
@@ -1,35 +1,21 @@
 package id.segari.service.service.impl.websocket;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.messaging.simp.stomp.*;
 
-import java.time.LocalDateTime;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
-import static id.segari.service.service.impl.websocket.WebSocketServiceImpl.*;
+import java.util.function.BiConsumer;
 
 public class PrintStompSessionHandlerAdapter extends StompSessionHandlerAdapter {
-    private final long warehouseId;
-    private final String topicDestination;
-    private final StompFrameHandler printStompFrameHandler;
-    private final ScheduledExecutorService reconnectExecutor;
-    private final Runnable onRunReconnect;
-    private final long reconnectIntervalMs;
-    private final CompletableFuture<Boolean> result;
+    private static final Logger log = LoggerFactory.getLogger(PrintStompSessionHandlerAdapter.class);
+
+    private final BiConsumer<StompSession, StompHeaders> onConnected;
+    private final BiConsumer<StompSession, Throwable> onConnectionLost;
 
-    public PrintStompSessionHandlerAdapter(long warehouseId,
-                                           String topicDestination,
-                                           StompFrameHandler printStompFrameHandler,
-                                           ScheduledExecutorService reconnectExecutor, Runnable onRunReconnect,
-                                           long reconnectIntervalMs, CompletableFuture<Boolean> result) {
-        this.warehouseId = warehouseId;
-        this.topicDestination = topicDestination;
-        this.printStompFrameHandler = printStompFrameHandler;
-        this.reconnectExecutor = reconnectExecutor;
-        this.onRunReconnect = onRunReconnect;
-        this.reconnectIntervalMs = reconnectIntervalMs;
-        this.result = result;
+    public PrintStompSessionHandlerAdapter(BiConsumer<StompSession, StompHeaders> onConnected,
+                                           BiConsumer<StompSession, Throwable> onConnectionLost) {
+        this.onConnected = onConnected;
+        this.onConnectionLost = onConnectionLost;
     }
 
     @Override
@@ -39,15 +25,10 @@ public class PrintStompSessionHandlerAdapter extends StompSessionHandlerAdapter
 
     @Override
     public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
-        lastConnectTime = LocalDateTime.now();
-        isConnecting.set(false);
         try {
-            final String topic = topicDestination + "/" + warehouseId;
-            session.subscribe(topic, printStompFrameHandler);
-            connectedWarehouseId.addAndGet(warehouseId);
-            result.complete(true);
+            onConnected.accept(session, connectedHeaders);
         } catch (Exception e) {
-            result.complete(false);
+            log.warn("Unable to subscribe after connecting: {}", e.getMessage());
         }
     }
 
@@ -57,18 +38,13 @@ public class PrintStompSessionHandlerAdapter extends StompSessionHandlerAdapter
                                 StompHeaders headers,
                                 byte[] payload,
                                 Throwable exception) {
-        isConnecting.set(false);
-        scheduleReconnect();
+        // A frame that failed to process leaves the connection up; losing it surfaces as a transport error
+        log.warn("STOMP {} frame failed: {}", command, exception.getMessage());
     }
 
     @Override
     public void handleTransportError(StompSession session, Throwable exception) {
-        isConnecting.set(false);
-        scheduleReconnect();
-    }
-
-    private void scheduleReconnect() {
-        if (connectedWarehouseId.get() == 0) return;
-        reconnectExecutor.schedule(onRunReconnect, reconnectIntervalMs, TimeUnit.MILLISECONDS);
+        log.warn("STOMP transport error: {}", exception.getMessage());
+        onConnectionLost.accept(session, exception);
     }
 }
@@ -0,0 +1,287 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.common.dto.websocket.WebSocketLinkStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.ConnectionLostException;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Owns the shared STOMP connection: opens it to the fastest healthy endpoint, notices when it is lost
+ * (including a peer that stopped sending heartbeats), and fails over to the next-ranked endpoint right away.
+ * Once every endpoint has failed it retries with decorrelated-jitter backoff, so warehouse PCs do not
+ * reconnect in lockstep after a backend restart, and probes the endpoints again. Also keeps the link
+ * metrics reported by {@link #toStatus()}.
+ */
+class StompConnectionSupervisor {
+    private static final Logger log = LoggerFactory.getLogger(StompConnectionSupervisor.class);
+    // DefaultStompSession's read inactivity task closes the connection with this message once nothing arrived in time
+    private static final String READ_INACTIVITY_MESSAGE = "Read inactivity";
+    private static final double RTT_SMOOTHING = 0.125;
+    private static final String STOMP_PATH = "/ws";
+
+    private final WebSocketStompClient stompClient;
+    private final ScheduledExecutorService scheduler;
+    private final StompEndpointSelector endpointSelector;
+    private final Consumer<StompSession> onConnected;
+    private final BooleanSupplier shouldReconnect;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    private final AtomicLong connectAttempts = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicLong missedHeartbeats = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+
+    private volatile StompSession session;
+    private volatile String activeEndpoint;
+    private volatile long[] negotiatedHeartbeat;
+    private volatile LocalDateTime connectedSince;
+    private volatile Long connectLatencyMs;
+    private volatile Double rttMs;
+    private volatile Double smoothedRttMs;
+    private volatile LocalDateTime lastDisconnectTime;
+    private volatile String lastDisconnectReason;
+    private volatile Long nextReconnectDelayMs;
+
+    private CompletableFuture<Boolean> pendingConnect;
+    private ScheduledFuture<?> pendingReconnect;
+    private long attempt;
+    private List<String> ranking = List.of();
+    // Endpoints still to try before backing off, fastest first
+    private final Deque<String> failoverOrder = new ArrayDeque<>();
+    private long lastDelayMs;
+    private boolean lostSinceConnect;
+
+    StompConnectionSupervisor(WebSocketStompClient stompClient, ScheduledExecutorService scheduler, StompEndpointSelector endpointSelector,
+                              Consumer<StompSession> onConnected, BooleanSupplier shouldReconnect,
+                              long baseDelayMs, long maxDelayMs) {
+        this.stompClient = stompClient;
+        this.scheduler = scheduler;
+        this.endpointSelector = endpointSelector;
+        this.activeEndpoint = endpointSelector.endpoints().isEmpty() ? null : endpointSelector.endpoints().getFirst();
+        this.onConnected = onConnected;
+        this.shouldReconnect = shouldReconnect;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = Math.max(baseDelayMs, maxDelayMs);
+        this.lastDelayMs = baseDelayMs;
+    }
+
+    /** The current session, or null while disconnected. */
+    StompSession session() {
+        final StompSession current = session;
+        return current != null && current.isConnected() ? current : null;
+    }
+
+    /**
+     * Starts connecting unless a connection is up or already being made; concurrent callers share the attempt,
+     * which completes false only once every endpoint has failed.
+     */
+    synchronized CompletableFuture<Boolean> ensureConnected() {
+        if (session() != null) return CompletableFuture.completedFuture(true);
+        if (pendingConnect != null && !pendingConnect.isDone()) return pendingConnect;
+        pendingConnect = new CompletableFuture<>();
+        dial();
+        return pendingConnect;
+    }
+
+    /** Closes the connection and stops reconnecting until {@link #ensureConnected()} is called again. */
+    synchronized void close() {
+        cancelPendingReconnect();
+        final StompSession current = session;
+        session = null;
+        connectedSince = null;
+        lostSinceConnect = false;
+        lastDelayMs = baseDelayMs;
+        failoverOrder.clear();
+        // Outcomes of an attempt still in flight no longer apply
+        attempt++;
+        if (pendingConnect != null) pendingConnect.complete(false);
+        if (current != null && current.isConnected()) current.disconnect();
+    }
+
+    /** The endpoint connected to, or the one being dialed. */
+    String activeEndpoint() {
+        return activeEndpoint;
+    }
+
+    /** Records one STOMP request/receipt round trip. */
+    void recordRoundTrip(long nanos) {
+        final double sample = nanos / 1_000_000.0;
+        final Double smoothed = smoothedRttMs;
+        rttMs = sample;
+        smoothedRttMs = smoothed == null ? sample : smoothed + RTT_SMOOTHING * (sample - smoothed);
+    }
+
+    WebSocketLinkStatus toStatus() {
+        final long[] heartbeat = negotiatedHeartbeat;
+        final boolean connected = session() != null;
+        return new WebSocketLinkStatus(connected, activeEndpoint, connected ? connectedSince : null, connectLatencyMs, rttMs, smoothedRttMs,
+                heartbeat != null ? heartbeat[0] : null, heartbeat != null ? heartbeat[1] : null,
+                connectAttempts.get(), connectFailures.get(), reconnects.get(), failovers.get(), missedHeartbeats.get(),
+                lastDisconnectTime, lastDisconnectReason, connected ? null : nextReconnectDelayMs, endpointSelector.lastProbe());
+    }
+
+    /**
+     * Dials the next endpoint. When a new round starts the endpoints are probed first, off the lock since a probe
+     * blocks for up to its timeout; the round then dials once the ranking is in. Called holding the lock.
+     */
+    private void dial() {
+        if (!failoverOrder.isEmpty()) {
+            connect(failoverOrder.poll());
+            return;
+        }
+        final long round = ++attempt;
+        Thread.ofVirtual().name("stomp-endpoint-probe").start(() -> onRanked(round, rankEndpoints()));
+    }
+
+    private List<String> rankEndpoints() {
+        try {
+            return endpointSelector.rank();
+        } catch (RuntimeException e) {
+            log.warn("Probing the STOMP endpoints failed, trying them in configured order: {}", e.getMessage());
+            return endpointSelector.endpoints();
+        }
+    }
+
+    private synchronized void onRanked(long round, List<String> ranked) {
+        // Closed or superseded while the probes were running
+        if (round != attempt) return;
+        ranking = ranked;
+        failoverOrder.addAll(ranked);
+        connect(failoverOrder.poll());
+    }
+
+    /** Called holding the lock. */
+    private void connect(String endpoint) {
+        final long dialed = ++attempt;
+        final long startedAt = System.nanoTime();
+        activeEndpoint = endpoint;
+        connectAttempts.incrementAndGet();
+        try {
+            final PrintStompSessionHandlerAdapter sessionHandler = new PrintStompSessionHandlerAdapter(
+                    (connected, headers) -> onSessionConnected(dialed, connected, headers, startedAt),
+                    (lost, cause) -> onConnectionLost(dialed, lost, cause));
+            stompClient.connectAsync(endpoint + STOMP_PATH, sessionHandler);
+        } catch (Exception e) {
+            onConnectionLost(dialed, null, e);
+        }
+    }
+
+    private void onSessionConnected(long dialed, StompSession connected, StompHeaders connectedHeaders, long startedAt) {
+        final CompletableFuture<Boolean> connecting;
+        synchronized (this) {
+            if (dialed != attempt) {
+                // Closed or superseded while the handshake was in flight
+                connected.disconnect();
+                return;
+            }
+            connectLatencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            negotiatedHeartbeat = negotiate(stompClient.getDefaultHeartbeat(), connectedHeaders.getHeartbeat());
+            session = connected;
+            connectedSince = LocalDateTime.now();
+            nextReconnectDelayMs = null;
+            lastDelayMs = baseDelayMs;
+            if (lostSinceConnect) reconnects.incrementAndGet();
+            lostSinceConnect = false;
+            // Should this endpoint go away, the others are tried in the last probed order before backing off
+            failoverOrder.clear();
+            ranking.stream().filter(endpoint -> !endpoint.equals(activeEndpoint)).forEach(failoverOrder::add);
+            connecting = pendingConnect;
+        }
+        if (negotiatedHeartbeat[1] == 0) {
+            log.warn("{} does not send heartbeats, a half-open connection will only be noticed on the next write", activeEndpoint);
+        }
+        try {
+            onConnected.accept(connected);
+        } finally {
+            if (connecting != null) connecting.complete(true);
+        }
+    }
+
+    private synchronized void onConnectionLost(long dialed, StompSession lost, Throwable cause) {
+        // A late failure from an older attempt must not tear down the one that replaced it
+        if (dialed != attempt) return;
+        if (lost != null && lost.isConnected()) return;
+        if (isMissedHeartbeat(cause)) {
+            missedHeartbeats.incrementAndGet();
+            log.warn("No heartbeat from {} in time, treating the connection as lost", activeEndpoint);
+        }
+        if (session != null) {
+            lastDisconnectTime = LocalDateTime.now();
+            lastDisconnectReason = cause != null ? cause.getMessage() : null;
+            lostSinceConnect = true;
+        } else {
+            connectFailures.incrementAndGet();
+        }
+        session = null;
+        connectedSince = null;
+        if (!shouldReconnect.getAsBoolean()) {
+            if (pendingConnect != null) pendingConnect.complete(false);
+            return;
+        }
+        if (!failoverOrder.isEmpty()) {
+            // Switch straight to the next-fastest endpoint; the subscriptions are restored once it connects
+            failovers.incrementAndGet();
+            log.info("Failing over from {} to {}", activeEndpoint, failoverOrder.peek());
+            if (pendingConnect == null || pendingConnect.isDone()) pendingConnect = new CompletableFuture<>();
+            dial();
+            return;
+        }
+        if (pendingConnect != null) pendingConnect.complete(false);
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (pendingReconnect != null && !pendingReconnect.isDone()) return;
+        final long delayMs = nextBackoffMs();
+        nextReconnectDelayMs = delayMs;
+        log.info("Reconnecting to {} in {} ms", endpointSelector.endpoints(), delayMs);
+        pendingReconnect = scheduler.schedule(() -> {
+            if (shouldReconnect.getAsBoolean()) ensureConnected();
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Decorrelated jitter: a random delay between the base and three times the previous one, capped
+    private long nextBackoffMs() {
+        final long upper = Math.min(maxDelayMs, lastDelayMs * 3);
+        lastDelayMs = upper > baseDelayMs ? ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1) : baseDelayMs;
+        return lastDelayMs;
+    }
+
+    private void cancelPendingReconnect() {
+        if (pendingReconnect != null) pendingReconnect.cancel(false);
+        pendingReconnect = null;
+        nextReconnectDelayMs = null;
+    }
+
+    private static boolean isMissedHeartbeat(Throwable cause) {
+        return cause instanceof ConnectionLostException
+                && cause.getMessage() != null
+                && cause.getMessage().startsWith(READ_INACTIVITY_MESSAGE);
+    }
+
+    /** The agreed {send, receive} heartbeat intervals in ms; 0 means that direction is off. */
+    private static long[] negotiate(long[] client, long[] server) {
+        if (client == null || server == null) return new long[]{0, 0};
+        final long send = client[0] > 0 && server[1] > 0 ? Math.max(client[0], server[1]) : 0;
+        final long receive = client[1] > 0 && server[0] > 0 ? Math.max(client[1], server[0]) : 0;
+        return new long[]{send, receive};
+    }
+}
@@ -0,0 +1,93 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.common.dto.websocket.WebSocketEndpointStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Ranks the configured STOMP endpoints by probing them all in parallel: the TCP connect time to each host
+ * is its latency, and an endpoint that does not accept a connection within the probe timeout is unhealthy.
+ */
+class StompEndpointSelector {
+    private static final Logger log = LoggerFactory.getLogger(StompEndpointSelector.class);
+
+    private final List<String> endpoints;
+    private final int probeTimeoutMs;
+    private volatile List<WebSocketEndpointStatus> lastProbe;
+
+    StompEndpointSelector(List<String> endpoints, int probeTimeoutMs) {
+        this.endpoints = List.copyOf(endpoints);
+        this.probeTimeoutMs = probeTimeoutMs;
+        this.lastProbe = endpoints.stream().map(endpoint -> new WebSocketEndpointStatus(endpoint, false, null, null)).toList();
+    }
+
+    List<String> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Healthy endpoints, fastest first. When none answers the probe every endpoint is returned in configured
+     * order, so the STOMP handshake still gets to decide.
+     */
+    List<String> rank() {
+        if (endpoints.size() == 1) return endpoints;
+        final List<WebSocketEndpointStatus> probes = probeAll();
+        lastProbe = probes;
+        final List<String> healthy = probes.stream()
+                .filter(WebSocketEndpointStatus::isHealthy)
+                .sorted(Comparator.comparingDouble(WebSocketEndpointStatus::latencyMs))
+                .map(WebSocketEndpointStatus::url)
+                .toList();
+        if (healthy.isEmpty()) {
+            log.warn("No STOMP endpoint answered the probe within {} ms, trying them in configured order", probeTimeoutMs);
+            return endpoints;
+        }
+        log.info("STOMP endpoints by latency: {}", healthy);
+        return healthy;
+    }
+
+    List<WebSocketEndpointStatus> lastProbe() {
+        return lastProbe;
+    }
+
+    private List<WebSocketEndpointStatus> probeAll() {
+        final List<Future<WebSocketEndpointStatus>> futures;
+        // Closing the executor waits for every probe, each bounded by the probe timeout
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            futures = endpoints.stream()
+                    .map(endpoint -> executor.submit(() -> probe(endpoint)))
+                    .toList();
+        }
+        return futures.stream().map(Future::resultNow).toList();
+    }
+
+    private WebSocketEndpointStatus probe(String endpoint) {
+        final long startedAt = System.nanoTime();
+        try (Socket socket = new Socket()) {
+            socket.connect(socketAddress(URI.create(endpoint)), probeTimeoutMs);
+            final double latencyMs = (System.nanoTime() - startedAt) / 1_000_000.0;
+            return new WebSocketEndpointStatus(endpoint, true, latencyMs, LocalDateTime.now());
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("STOMP endpoint {} failed its probe: {}", endpoint, e.getMessage());
+            return new WebSocketEndpointStatus(endpoint, false, null, LocalDateTime.now());
+        }
+    }
+
+    private static InetSocketAddress socketAddress(URI uri) {
+        if (uri.getHost() == null) throw new IllegalArgumentException("no host in " + uri);
+        if (uri.getPort() != -1) return new InetSocketAddress(uri.getHost(), uri.getPort());
+        final boolean secure = "wss".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+        return new InetSocketAddress(uri.getHost(), secure ? 443 : 80);
+    }
+}
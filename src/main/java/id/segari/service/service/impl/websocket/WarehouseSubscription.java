@@ -0,0 +1,116 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.common.dto.websocket.WebSocketStatus;
+import id.segari.service.service.PrintCatchUpExternalService;
+import id.segari.service.service.PrintQueueService;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.time.LocalDateTime;
+import java.util.OptionalLong;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * One warehouse's print subscription on the shared STOMP connection, with its own flow control and stats.
+ * It outlives the connection: after a reconnect it is attached to the new session again, and the frames
+ * published in between are caught up from the backend. Its sequence position is saved periodically so a
+ * restart catches up from there too.
+ */
+class WarehouseSubscription implements PrintStompFlowControl.Listener {
+    private final long warehouseId;
+    private final Settings settings;
+    private final PrintStompFlowControl flowControl;
+    private final PrintSequenceTracker sequenceTracker;
+    private final PrintCatchUp catchUp;
+    private final StompFrameHandler frameHandler;
+    private final LongConsumer roundTripListener;
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private volatile LocalDateTime lastMessageTime;
+    private volatile LocalDateTime lastSubscribeTime;
+    private volatile Long savedPosition;
+
+    WarehouseSubscription(long warehouseId, Settings settings, @Nullable Long restoredSequence, PrintQueueService printQueueService,
+                          PrintStompPayloadDecoder payloadDecoder, PrintCatchUpExternalService catchUpExternalService,
+                          ScheduledExecutorService scheduler, LongConsumer roundTripListener) {
+        this.warehouseId = warehouseId;
+        this.settings = settings;
+        this.roundTripListener = roundTripListener;
+        this.flowControl = new PrintStompFlowControl(settings.topic() + "/" + warehouseId, printQueueService, scheduler,
+                settings.highWatermark(), settings.lowWatermark(), settings.resumeCheckIntervalMs(), settings.prefetch(), this);
+        this.sequenceTracker = new PrintSequenceTracker(settings.sequenceCapacity(), restoredSequence);
+        this.savedPosition = restoredSequence;
+        this.catchUp = new PrintCatchUp(warehouseId, sequenceTracker, flowControl, printQueueService, catchUpExternalService,
+                scheduler, settings.catchUpPageSize(), settings.catchUpRetryIntervalMs());
+        this.frameHandler = new PrintStompFrameHandler(printQueueService, payloadDecoder, flowControl, sequenceTracker, this::recordMessage);
+    }
+
+    void attach(StompSession session) {
+        flowControl.attach(session, frameHandler);
+        lastSubscribeTime = LocalDateTime.now();
+    }
+
+    void detach() {
+        flowControl.detach();
+    }
+
+    boolean isAttached() {
+        return flowControl.isAttached();
+    }
+
+    long warehouseId() {
+        return warehouseId;
+    }
+
+    /** The position to save, when it moved since the last {@link #markSaved}. */
+    OptionalLong unsavedPosition() {
+        final OptionalLong position = sequenceTracker.resumePosition();
+        final Long saved = savedPosition;
+        return position.isPresent() && saved != null && saved == position.getAsLong() ? OptionalLong.empty() : position;
+    }
+
+    void markSaved(long position) {
+        savedPosition = position;
+    }
+
+    @Override
+    public void onSubscribed() {
+        if (settings.catchUpEnabled()) catchUp.request();
+    }
+
+    @Override
+    public void onSubscriptionLost() {
+        sequenceTracker.markGap();
+    }
+
+    @Override
+    public void onResumed() {
+        // A catch-up stopped by the pause continues from where it was
+        if (settings.catchUpEnabled()) catchUp.request();
+    }
+
+    @Override
+    public void onRoundTrip(long nanos) {
+        roundTripListener.accept(nanos);
+    }
+
+    WebSocketStatus toStatus(String serverUrl) {
+        final boolean attached = isAttached();
+        final OptionalLong lastSequence = sequenceTracker.lastSequence();
+        return new WebSocketStatus(warehouseId, attached, attached && flowControl.isPaused(), messagesReceived.get(),
+                lastMessageTime, attached ? lastSubscribeTime : null, serverUrl,
+                lastSequence.isPresent() ? lastSequence.getAsLong() : null,
+                sequenceTracker.catchUpCursor().isPresent(), catchUp.framesCaughtUp());
+    }
+
+    private void recordMessage() {
+        messagesReceived.incrementAndGet();
+        lastMessageTime = LocalDateTime.now();
+    }
+
+    record Settings(String topic, double highWatermark, double lowWatermark, long resumeCheckIntervalMs, int prefetch,
+                    int sequenceCapacity, boolean catchUpEnabled, int catchUpPageSize, long catchUpRetryIntervalMs) {
+    }
+}
@@ -2,155 +2,205 @@ package id.segari.service.service.impl.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.websocket.WebSocketLinkStatus;
 import id.segari.service.common.dto.websocket.WebSocketStatus;
+import id.segari.service.db.entity.PrintSequenceCursor;
+import id.segari.service.db.repository.PrintSequenceCursorRepository;
 import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.PrintCatchUpExternalService;
 import id.segari.service.service.PrintQueueService;
 import id.segari.service.service.WebSocketService;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompSession;
-import org.springframework.messaging.simp.stomp.StompSessionHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.CompletableFuture;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * One STOMP connection shared by every connected warehouse. Each warehouse is a {@link WarehouseSubscription}
+ * with its own subscription, flow control and stats; the connection is opened for the first warehouse,
+ * re-established by the {@link StompConnectionSupervisor} (and every subscription restored) after it drops,
+ * and closed with the last warehouse. Each warehouse's sequence position is saved every
+ * {@code websocket.catchup.cursor.save.interval.ms} and on shutdown, and forgotten when it is disconnected.
+ */
 @Service
 public class WebSocketServiceImpl implements WebSocketService {
-
-    static final AtomicBoolean isConnecting = new AtomicBoolean(false);
-    static final AtomicLong connectedWarehouseId = new AtomicLong(0L);
-    static LocalDateTime lastMessageTime;
-    static LocalDateTime lastConnectTime;
+    private static final Logger log = LoggerFactory.getLogger(WebSocketServiceImpl.class);
+    private static final long CONNECT_TIMEOUT_SECONDS = 5;
+    private static final int SEQUENCE_CAPACITY = 10_000;
 
     private final PrintQueueService printQueueService;
+    private final PrintCatchUpExternalService printCatchUpExternalService;
+    private final PrintSequenceCursorRepository printSequenceCursorRepository;
     private final WebSocketStompClient stompClient;
-    private final ScheduledExecutorService reconnectExecutor;
-    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler;
+    private final PrintStompPayloadDecoder payloadDecoder;
+    private final Map<Long, WarehouseSubscription> subscriptionByWarehouseId = new ConcurrentHashMap<>();
+    private final List<String> serverUrls;
+    private final StompConnectionSupervisor supervisor;
+    private ScheduledFuture<?> saveCursorsTask;
 
-    @Value("${websocket.server.url}")
-    private String serverUrl;
     @Value("${websocket.topic.print}")
     private String topicDestination;
-    @Value("${websocket.reconnect.interval.ms}")
-    private long reconnectIntervalMs;
-
-    private StompSession stompSession;
-
-    public WebSocketServiceImpl(PrintQueueService printQueueService, WebSocketStompClient stompClient,
-                                ScheduledExecutorService webSocketScheduledExecutor, ObjectMapper objectMapper) {
+    @Value("${websocket.backpressure.high.watermark}")
+    private double highWatermark;
+    @Value("${websocket.backpressure.low.watermark}")
+    private double lowWatermark;
+    @Value("${websocket.backpressure.resume.interval.ms}")
+    private long resumeCheckIntervalMs;
+    @Value("${websocket.backpressure.prefetch}")
+    private int prefetch;
+    @Value("${websocket.catchup.enabled}")
+    private boolean catchUpEnabled;
+    @Value("${websocket.catchup.page.size}")
+    private int catchUpPageSize;
+    @Value("${websocket.catchup.retry.interval.ms}")
+    private long catchUpRetryIntervalMs;
+    @Value("${websocket.catchup.cursor.save.interval.ms}")
+    private long cursorSaveIntervalMs;
+
+    public WebSocketServiceImpl(PrintQueueService printQueueService, PrintCatchUpExternalService printCatchUpExternalService,
+                                PrintSequenceCursorRepository printSequenceCursorRepository, WebSocketStompClient stompClient,
+                                ScheduledExecutorService scheduledExecutorService, ObjectMapper objectMapper,
+                                @Value("${websocket.server.url}") String serverUrl,
+                                @Value("${websocket.endpoint.probe.timeout.ms}") int probeTimeoutMs,
+                                @Value("${websocket.reconnect.base.delay.ms}") long reconnectBaseDelayMs,
+                                @Value("${websocket.reconnect.max.delay.ms}") long reconnectMaxDelayMs) {
         this.printQueueService = printQueueService;
+        this.printCatchUpExternalService = printCatchUpExternalService;
+        this.printSequenceCursorRepository = printSequenceCursorRepository;
         this.stompClient = stompClient;
-        this.reconnectExecutor = webSocketScheduledExecutor;
-        this.objectMapper = objectMapper;
+        this.scheduler = scheduledExecutorService;
+        this.payloadDecoder = new PrintStompPayloadDecoder(objectMapper);
+        this.serverUrls = Arrays.stream(serverUrl.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        this.supervisor = new StompConnectionSupervisor(stompClient, scheduledExecutorService,
+                new StompEndpointSelector(serverUrls, probeTimeoutMs),
+                this::onConnected, () -> !subscriptionByWarehouseId.isEmpty(), reconnectBaseDelayMs, reconnectMaxDelayMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        saveCursorsTask = scheduler.scheduleWithFixedDelay(this::saveSequenceCursors, cursorSaveIntervalMs, cursorSaveIntervalMs, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void connect(long warehouseId) {
         validateWebsocketConfig();
         validateWarehouseId(warehouseId);
-        validateConnectedWarehouse(warehouseId);
-        if (isConnected(warehouseId) || isConnecting.get()) return;
-        tryConnect(warehouseId);
+        final WarehouseSubscription subscription = subscriptionByWarehouseId.computeIfAbsent(warehouseId, this::createSubscription);
+        final StompSession session = supervisor.session();
+        if (session != null) {
+            subscription.attach(session);
+            return;
+        }
+        awaitConnection(warehouseId);
     }
 
     @Override
     public void disconnect(long warehouseId) {
         validateWarehouseId(warehouseId);
-        validateDisconnectWarehouse(warehouseId);
-        if (stompSession != null && stompSession.isConnected()) {
-            stompSession.disconnect();
+        final WarehouseSubscription subscription = subscriptionByWarehouseId.remove(warehouseId);
+        if (subscription == null) {
+            throw new InternalBaseException(InternalResponseCode.WEBSOCKET_WAREHOUSE_NOT_CONNECTED, HttpStatus.BAD_REQUEST, "This warehouse is not connected");
         }
-        stompSession = null;
-        isConnecting.set(false);
-        connectedWarehouseId.set(0);
-        lastMessageTime = null;
-        lastConnectTime = null;
+        subscription.detach();
+        // Frames published while a warehouse is switched off are not wanted when it is connected again
+        deleteSequenceCursor(warehouseId);
+        if (subscriptionByWarehouseId.isEmpty()) supervisor.close();
     }
 
     @Override
     public boolean isConnected(long warehouseId) {
-        return stompSession != null && stompSession.isConnected();
+        final WarehouseSubscription subscription = subscriptionByWarehouseId.get(warehouseId);
+        return subscription != null && subscription.isAttached();
     }
 
     @Override
     public WebSocketStatus getStatus(long warehouseId) {
-        return new WebSocketStatus(
-                connectedWarehouseId.get(),
-                isConnected(warehouseId),
-                lastMessageTime,
-                lastConnectTime,
-                serverUrl
-        );
+        final WarehouseSubscription subscription = subscriptionByWarehouseId.get(warehouseId);
+        if (subscription == null) return new WebSocketStatus(warehouseId, false, false, 0, null, null, supervisor.activeEndpoint(), null, false, 0);
+        return subscription.toStatus(supervisor.activeEndpoint());
+    }
+
+    @Override
+    public List<WebSocketStatus> getStatuses() {
+        return subscriptionByWarehouseId.values().stream().map(subscription -> subscription.toStatus(supervisor.activeEndpoint())).toList();
+    }
+
+    @Override
+    public WebSocketLinkStatus getLinkStatus() {
+        return supervisor.toStatus();
+    }
+
+    private WarehouseSubscription createSubscription(long warehouseId) {
+        final WarehouseSubscription.Settings settings = new WarehouseSubscription.Settings(topicDestination, highWatermark,
+                lowWatermark, resumeCheckIntervalMs, prefetch, SEQUENCE_CAPACITY, catchUpEnabled, catchUpPageSize, catchUpRetryIntervalMs);
+        final Long restoredSequence = findSequenceCursor(warehouseId);
+        return new WarehouseSubscription(warehouseId, settings, restoredSequence, printQueueService, payloadDecoder,
+                printCatchUpExternalService, scheduler, supervisor::recordRoundTrip);
     }
 
-    private void tryConnect(long warehouseId) {
+    private Long findSequenceCursor(long warehouseId) {
         try {
-            if (!createAndConnect(warehouseId).get(5, TimeUnit.SECONDS)){
-                throw new RuntimeException();
-            }
+            return printSequenceCursorRepository.findById(warehouseId).map(PrintSequenceCursor::getLastSequence).orElse(null);
         } catch (Exception e) {
-            throw new InternalBaseException(InternalResponseCode.WEBSOCKET_CONNECTION_FAILED, HttpStatus.INTERNAL_SERVER_ERROR, "Failed to connect to WebSocket: " + e.getMessage());
+            log.warn("Unable to load print sequence cursor of warehouse {}, missed frames will not be caught up: {}", warehouseId, e.getMessage());
+            return null;
         }
     }
 
-    private CompletableFuture<Boolean> createAndConnect(long warehouseId) {
-        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    private void saveSequenceCursors() {
+        for (WarehouseSubscription subscription : subscriptionByWarehouseId.values()) {
+            final OptionalLong position = subscription.unsavedPosition();
+            if (position.isEmpty()) continue;
+            try {
+                printSequenceCursorRepository.save(new PrintSequenceCursor(subscription.warehouseId(), position.getAsLong(), LocalDateTime.now()));
+                subscription.markSaved(position.getAsLong());
+            } catch (Exception e) {
+                log.warn("Unable to save print sequence cursor of warehouse {}: {}", subscription.warehouseId(), e.getMessage());
+            }
+        }
+    }
+
+    private void deleteSequenceCursor(long warehouseId) {
         try {
-            isConnecting.set(true);
-            final StompFrameHandler frameHandler = new PrintStompFrameHandler(printQueueService, objectMapper);
-            final StompSessionHandler sessionHandler = getSessionHandler(warehouseId, frameHandler, result);
-
-            stompClient.connectAsync(serverUrl+"/ws", sessionHandler)
-                    .thenAccept(session -> stompSession = session)
-                    .exceptionally(_ -> {
-                        isConnecting.set(false);
-                        result.complete(false);
-                        return null;
-                    });
+            printSequenceCursorRepository.deleteById(warehouseId);
         } catch (Exception e) {
-            isConnecting.set(false);
-            result.complete(false);
-        }
-        return result;
-    }
-
-    private PrintStompSessionHandlerAdapter getSessionHandler(long warehouseId, StompFrameHandler frameHandler,
-                                                              CompletableFuture<Boolean> result) {
-        return new PrintStompSessionHandlerAdapter(
-                warehouseId,
-                topicDestination,
-                frameHandler,
-                reconnectExecutor,
-                () -> {
-                    if (!isConnected(connectedWarehouseId.get()) && !isConnecting.get()) {
-                        createAndConnect(connectedWarehouseId.get());
-                    }
-                },
-                reconnectIntervalMs,
-                result
-        );
-    }
-
-    private void validateConnectedWarehouse(long warehouseId) {
-        if (warehouseId != connectedWarehouseId.get() && isConnected(warehouseId)){
-            throw new InternalBaseException(InternalResponseCode.WEBSOCKET_ALLOW_ONLY_ONE_WAREHOUSE, HttpStatus.BAD_REQUEST, "warehouse id "+connectedWarehouseId.get()+" is connected. cannot connect other warehouse. please disconnect first.");
+            log.warn("Unable to delete print sequence cursor of warehouse {}: {}", warehouseId, e.getMessage());
         }
     }
 
-    private void validateDisconnectWarehouse(long warehouseId) {
-        if (warehouseId != connectedWarehouseId.get()){
-            throw new InternalBaseException(InternalResponseCode.WEBSOCKET_WAREHOUSE_NOT_CONNECTED, HttpStatus.BAD_REQUEST, "This warehouse is not connected");
+    private void awaitConnection(long warehouseId) {
+        try {
+            if (!supervisor.ensureConnected().get(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("connection was not established");
+            }
+        } catch (Exception e) {
+            final WarehouseSubscription subscription = subscriptionByWarehouseId.remove(warehouseId);
+            if (subscription != null) subscription.detach();
+            throw new InternalBaseException(InternalResponseCode.WEBSOCKET_CONNECTION_FAILED, HttpStatus.INTERNAL_SERVER_ERROR, "Failed to connect to WebSocket: " + e.getMessage());
         }
     }
 
+    private void onConnected(StompSession session) {
+        for (WarehouseSubscription subscription : subscriptionByWarehouseId.values()) subscription.attach(session);
+        log.info("Connected to {} for warehouses {}", supervisor.activeEndpoint(), subscriptionByWarehouseId.keySet());
+    }
+
     private void validateWarehouseId(long warehouseId) {
         if (warehouseId <= 0){
             throw new InternalBaseException(InternalResponseCode.INVALID_WAREHOUSE_ID, HttpStatus.BAD_REQUEST, "Ivalid warehouse id");
@@ -158,16 +208,20 @@ public class WebSocketServiceImpl implements WebSocketService {
     }
 
     private void validateWebsocketConfig() {
-        if (serverUrl.isEmpty()) {
+        if (serverUrls.isEmpty()) {
             throw new InternalBaseException(InternalResponseCode.WEBSOCKET_EMPTY_CONFIG, HttpStatus.CONFLICT, "Websocket Empty Config");
         }
     }
 
     @PreDestroy
     public void shutdown() {
+        if (saveCursorsTask != null) saveCursorsTask.cancel(false);
+        saveSequenceCursors();
         try {
-            disconnect(connectedWarehouseId.get());
+            for (WarehouseSubscription subscription : subscriptionByWarehouseId.values()) subscription.detach();
+            subscriptionByWarehouseId.clear();
+            supervisor.close();
             stompClient.stop();
         } catch (Exception ignored) {}
     }
-}
\ No newline at end of file
+}
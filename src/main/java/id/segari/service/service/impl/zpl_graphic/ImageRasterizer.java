@@ -0,0 +1,92 @@
+package id.segari.service.service.impl.zpl_graphic;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Converts an image to a {@link MonochromeBitmap}, either by a fixed luminance threshold or by
+ * Floyd-Steinberg dithering. Transparent pixels are composited onto white (no dot).
+ */
+final class ImageRasterizer {
+    private ImageRasterizer() {
+    }
+
+    static MonochromeBitmap rasterize(BufferedImage image, int threshold, boolean dither) {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int[] luminance = luminance(image.getRGB(0, 0, width, height, null, 0, width));
+        final int bytesPerRow = (width + 7) >>> 3;
+        final byte[] data = new byte[bytesPerRow * height];
+        if (dither) {
+            dither(luminance, width, height, threshold, bytesPerRow, data);
+        } else {
+            threshold(luminance, width, height, threshold, bytesPerRow, data);
+        }
+        return new MonochromeBitmap(width, height, bytesPerRow, data);
+    }
+
+    /**
+     * Branch-free integer loops over flat arrays, so C2 can auto-vectorize them. The Vector API is still an
+     * incubator module and would need {@code --add-modules} in every build and launcher, which this service avoids.
+     */
+    private static int[] luminance(int[] argb) {
+        final int[] luminance = new int[argb.length];
+        for (int i = 0; i < argb.length; i++) {
+            final int pixel = argb[i];
+            final int alpha = pixel >>> 24;
+            final int gray = (((pixel >> 16) & 0xFF) * 77 + ((pixel >> 8) & 0xFF) * 150 + (pixel & 0xFF) * 29) >>> 8;
+            // gray * alpha/255 + white * (1 - alpha/255), with /255 approximated by (x * 257) >> 16
+            luminance[i] = ((gray * alpha + 255 * (255 - alpha)) * 257 + 257) >>> 16;
+        }
+        return luminance;
+    }
+
+    private static void threshold(int[] luminance, int width, int height, int threshold, int bytesPerRow, byte[] data) {
+        final int[] dots = new int[width];
+        for (int y = 0; y < height; y++) {
+            final int rowOffset = y * width;
+            for (int x = 0; x < width; x++) {
+                // 1 when darker than the threshold: sign bit of (luminance - threshold)
+                dots[x] = (luminance[rowOffset + x] - threshold) >>> 31;
+            }
+            pack(dots, width, data, y * bytesPerRow);
+        }
+    }
+
+    private static void dither(int[] luminance, int width, int height, int threshold, int bytesPerRow, byte[] data) {
+        final int[] dots = new int[width];
+        int[] errors = new int[width + 2];
+        int[] nextErrors = new int[width + 2];
+        for (int y = 0; y < height; y++) {
+            final int rowOffset = y * width;
+            for (int x = 0; x < width; x++) {
+                final int value = luminance[rowOffset + x] + (errors[x + 1] >> 4);
+                final int dot = value < threshold ? 1 : 0;
+                dots[x] = dot;
+                final int error = value - (dot == 1 ? 0 : 255);
+                errors[x + 2] += error * 7;
+                nextErrors[x] += error * 3;
+                nextErrors[x + 1] += error * 5;
+                nextErrors[x + 2] += error;
+            }
+            pack(dots, width, data, y * bytesPerRow);
+            final int[] done = errors;
+            errors = nextErrors;
+            nextErrors = done;
+            Arrays.fill(nextErrors, 0);
+        }
+    }
+
+    private static void pack(int[] dots, int width, byte[] data, int offset) {
+        final int fullBytes = width >>> 3;
+        for (int b = 0; b < fullBytes; b++) {
+            final int x = b << 3;
+            data[offset + b] = (byte) (dots[x] << 7 | dots[x + 1] << 6 | dots[x + 2] << 5 | dots[x + 3] << 4
+                    | dots[x + 4] << 3 | dots[x + 5] << 2 | dots[x + 6] << 1 | dots[x + 7]);
+        }
+        if (fullBytes << 3 == width) return;
+        int last = 0;
+        for (int x = fullBytes << 3; x < width; x++) last |= dots[x] << (7 - (x & 7));
+        data[offset + fullBytes] = (byte) last;
+    }
+}
@@ -0,0 +1,10 @@
+package id.segari.service.service.impl.zpl_graphic;
+
+/**
+ * 1-bit image packed MSB first, {@code bytesPerRow} bytes per row; a set bit prints a black dot.
+ */
+record MonochromeBitmap(int width, int height, int bytesPerRow, byte[] data) {
+    int totalBytes() {
+        return data.length;
+    }
+}
@@ -0,0 +1,127 @@
+package id.segari.service.service.impl.zpl_graphic;
+
+import id.segari.service.common.dto.graphic.ZplGraphicEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes a {@link MonochromeBitmap} as {@code ^GFA} field data, either zlib-compressed and base64 encoded
+ * ({@code :Z64:data:crc}) or as hex with Zebra's alternative compression scheme (ACS) run-length codes.
+ */
+final class ZplGraphicEncoder {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private ZplGraphicEncoder() {
+    }
+
+    /** @return the encoding actually used, with the data in {@code out} */
+    static ZplGraphicEncoding encode(MonochromeBitmap bitmap, ZplGraphicEncoding encoding, StringBuilder out) {
+        return switch (encoding) {
+            case Z64 -> {
+                out.append(z64(bitmap));
+                yield ZplGraphicEncoding.Z64;
+            }
+            case ACS -> {
+                out.append(acs(bitmap));
+                yield ZplGraphicEncoding.ACS;
+            }
+            case AUTO -> {
+                final String z64 = z64(bitmap);
+                final String acs = acs(bitmap);
+                final boolean useZ64 = z64.length() <= acs.length();
+                out.append(useZ64 ? z64 : acs);
+                yield useZ64 ? ZplGraphicEncoding.Z64 : ZplGraphicEncoding.ACS;
+            }
+        };
+    }
+
+    static String z64(MonochromeBitmap bitmap) {
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(bitmap.data());
+            deflater.finish();
+            final ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bitmap.totalBytes() / 4));
+            final byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            final String base64 = Base64.getEncoder().encodeToString(compressed.toByteArray());
+            return ":Z64:" + base64 + ":" + String.format("%04x", crc16(base64.getBytes(StandardCharsets.US_ASCII)));
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static String acs(MonochromeBitmap bitmap) {
+        final int hexPerRow = bitmap.bytesPerRow() * 2;
+        final StringBuilder out = new StringBuilder(bitmap.totalBytes());
+        final char[] row = new char[hexPerRow];
+        final char[] previous = new char[hexPerRow];
+        for (int y = 0; y < bitmap.height(); y++) {
+            final int offset = y * bitmap.bytesPerRow();
+            for (int b = 0; b < bitmap.bytesPerRow(); b++) {
+                final int value = bitmap.data()[offset + b] & 0xFF;
+                row[b * 2] = HEX[value >>> 4];
+                row[b * 2 + 1] = HEX[value & 0x0F];
+            }
+            if (y > 0 && Arrays.equals(row, previous)) {
+                out.append(':');
+                continue;
+            }
+            appendRow(out, row);
+            System.arraycopy(row, 0, previous, 0, hexPerRow);
+        }
+        return out.toString();
+    }
+
+    private static void appendRow(StringBuilder out, char[] row) {
+        int end = row.length;
+        char fill = 0;
+        // A trailing run of 0 or F is replaced by ',' or '!' (rest of the row)
+        if (row[end - 1] == '0' || row[end - 1] == 'F') {
+            fill = row[end - 1];
+            while (end > 0 && row[end - 1] == fill) end--;
+        }
+        int i = 0;
+        while (i < end) {
+            final char c = row[i];
+            int run = 1;
+            while (i + run < end && row[i + run] == c) run++;
+            appendCount(out, run);
+            out.append(c);
+            i += run;
+        }
+        if (fill == '0') out.append(',');
+        else if (fill == 'F') out.append('!');
+    }
+
+    /** Repeat counts: G-Y are 1-19, g-z are 20-400 in steps of 20; a single character needs no count. */
+    private static void appendCount(StringBuilder out, int run) {
+        if (run == 1) return;
+        while (run >= 400) {
+            out.append('z');
+            run -= 400;
+        }
+        if (run >= 20) {
+            out.append((char) ('g' + run / 20 - 1));
+            run %= 20;
+        }
+        if (run > 0) out.append((char) ('G' + run - 1));
+    }
+
+    /** CRC-16/XMODEM (polynomial 0x1021, initial value 0) over the base64 text, as ZPL expects. */
+    private static int crc16(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= (b & 0xFF) << 8;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xFFFF;
+    }
+}
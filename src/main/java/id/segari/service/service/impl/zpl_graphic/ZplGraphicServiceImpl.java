@@ -0,0 +1,165 @@
+package id.segari.service.service.impl.zpl_graphic;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.graphic.ZplGraphicEncoding;
+import id.segari.service.common.dto.graphic.ZplGraphicResponse;
+import id.segari.service.common.dto.label.LabelPlaceholderType;
+import id.segari.service.db.entity.ZplGraphic;
+import id.segari.service.db.repository.ZplGraphicRepository;
+import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.ZplGraphicService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Converts PNG/BMP images into {@code ^GFA} graphic fields. Results are keyed by a hash of the image bytes
+ * and conversion options, stored in the database and kept in an LRU in front of it, so converting or
+ * printing the same image again never decodes it twice.
+ */
+@Service
+public class ZplGraphicServiceImpl implements ZplGraphicService {
+    private static final Logger log = LoggerFactory.getLogger(ZplGraphicServiceImpl.class);
+    private static final long MAX_PIXELS = 4096L * 4096L;
+    private static final int MAX_COMMAND_LENGTH = 1_000_000;
+
+    private final ZplGraphicRepository zplGraphicRepository;
+    private final int cacheSize;
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final LinkedHashMap<String, ZplGraphic> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ZplGraphicServiceImpl(ZplGraphicRepository zplGraphicRepository,
+                                 @Value("${printer.graphic.cache-size:256}") int cacheSize) {
+        this.zplGraphicRepository = zplGraphicRepository;
+        this.cacheSize = cacheSize;
+    }
+
+    @Override
+    public ZplGraphicResponse convert(byte[] image, int threshold, boolean dither, ZplGraphicEncoding encoding) {
+        if (threshold < 0 || threshold > 255) {
+            throw new InternalBaseException(InternalResponseCode.INVALID_ARGUMENT, HttpStatus.BAD_REQUEST, "Threshold must be between 0 and 255");
+        }
+        final String id = hash(image, threshold + ":" + dither + ":" + encoding);
+        final Optional<ZplGraphic> existing = find(id);
+        if (existing.isPresent()) return toResponse(existing.get());
+
+        final BufferedImage decoded = decode(image);
+        final MonochromeBitmap bitmap = ImageRasterizer.rasterize(decoded, threshold, dither);
+        final StringBuilder command = new StringBuilder("^GFA,")
+                .append(bitmap.totalBytes()).append(',')
+                .append(bitmap.totalBytes()).append(',')
+                .append(bitmap.bytesPerRow()).append(',');
+        final ZplGraphicEncoding used = ZplGraphicEncoder.encode(bitmap, encoding, command);
+        if (command.length() > MAX_COMMAND_LENGTH) {
+            throw new InternalBaseException(InternalResponseCode.INVALID_IMAGE, HttpStatus.BAD_REQUEST, "Image is too large once converted: " + command.length() + " characters");
+        }
+
+        final ZplGraphic graphic = zplGraphicRepository.save(new ZplGraphic(id, bitmap.width(), bitmap.height(),
+                bitmap.bytesPerRow(), used, command.toString(), LocalDateTime.now()));
+        cache(graphic);
+        log.info("Converted graphic: id={}, size={}x{}, encoding={}, rawBytes={}, commandLength={}",
+                id, bitmap.width(), bitmap.height(), used, bitmap.totalBytes(), command.length());
+        return toResponse(graphic);
+    }
+
+    @Override
+    public ZplGraphicResponse get(String id) {
+        return toResponse(find(id).orElseThrow(() -> notFound(id)));
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return find(id).isPresent();
+    }
+
+    @Override
+    public String getCommand(String id) {
+        return find(id).orElseThrow(() -> notFound(id)).getCommand();
+    }
+
+    private Optional<ZplGraphic> find(String id) {
+        cacheLock.lock();
+        try {
+            final ZplGraphic cached = cache.get(id);
+            if (cached != null) return Optional.of(cached);
+        } finally {
+            cacheLock.unlock();
+        }
+        final Optional<ZplGraphic> stored = zplGraphicRepository.findById(id);
+        stored.ifPresent(this::cache);
+        return stored;
+    }
+
+    private void cache(ZplGraphic graphic) {
+        cacheLock.lock();
+        try {
+            cache.put(graphic.getId(), graphic);
+            while (cache.size() > cacheSize) cache.remove(cache.firstEntry().getKey());
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    /** Checks the dimensions from the image header before decoding, so an oversized image is never inflated. */
+    private BufferedImage decode(byte[] image) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+            final Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : Collections.emptyIterator();
+            if (!readers.hasNext()) {
+                throw new InternalBaseException(InternalResponseCode.INVALID_IMAGE, HttpStatus.BAD_REQUEST, "Unsupported image format, expected PNG or BMP");
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                final int width = reader.getWidth(0);
+                final int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new InternalBaseException(InternalResponseCode.INVALID_IMAGE, HttpStatus.BAD_REQUEST, "Image is too large: " + width + "x" + height);
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new InternalBaseException(InternalResponseCode.INVALID_IMAGE, HttpStatus.BAD_REQUEST, "Unable to read image: " + e.getMessage());
+        }
+    }
+
+    private String hash(byte[] image, String options) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(options.getBytes(StandardCharsets.US_ASCII));
+            digest.update(image);
+            return HexFormat.of().formatHex(digest.digest()).substring(0, LabelPlaceholderType.GRAPHIC_ID_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private InternalBaseException notFound(String id) {
+        return new InternalBaseException(InternalResponseCode.GRAPHIC_NOT_FOUND, HttpStatus.NOT_FOUND, "Graphic not found: " + id);
+    }
+
+    private ZplGraphicResponse toResponse(ZplGraphic graphic) {
+        return new ZplGraphicResponse(graphic.getId(), graphic.getWidth(), graphic.getHeight(), graphic.getBytesPerRow(),
+                graphic.getBytesPerRow() * graphic.getHeight(), graphic.getEncoding(), graphic.getCommand());
+    }
+}
@@ -0,0 +1,48 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-printer pool of {@link ZplBufferWriter}s. Buffers are sized from the largest of the recent job
+ * sizes and grow on demand, so steady-state printing reuses the same off-heap memory instead of
+ * allocating a direct buffer per label.
+ */
+public class PrintBufferPool {
+    private static final int MIN_CAPACITY = 8 * 1024;
+    private static final int MAX_IDLE_WRITERS = 4;
+    private static final int SIZE_HISTORY = 32;
+    private static final int SHRINK_FACTOR = 4;
+
+    private final ConcurrentLinkedDeque<ZplBufferWriter> idleWriters = new ConcurrentLinkedDeque<>();
+    private final int[] recentSizes = new int[SIZE_HISTORY];
+    private final AtomicInteger sizeIndex = new AtomicInteger();
+
+    public ZplBufferWriter acquire() {
+        final int targetCapacity = targetCapacity();
+        final ZplBufferWriter writer = idleWriters.pollFirst();
+        if (writer == null) return new ZplBufferWriter(targetCapacity);
+        if (writer.capacity() > targetCapacity * SHRINK_FACTOR) writer.resize(targetCapacity);
+        writer.reset();
+        return writer;
+    }
+
+    public void release(ZplBufferWriter writer) {
+        recordSize(writer.finishedSize());
+        if (idleWriters.size() < MAX_IDLE_WRITERS) idleWriters.offerFirst(writer);
+    }
+
+    public void clear() {
+        idleWriters.clear();
+    }
+
+    private void recordSize(int size) {
+        recentSizes[Math.floorMod(sizeIndex.getAndIncrement(), SIZE_HISTORY)] = size;
+    }
+
+    private int targetCapacity() {
+        int max = MIN_CAPACITY;
+        for (int size : recentSizes) max = Math.max(max, size);
+        return Integer.highestOneBit(max - 1) << 1;
+    }
+}
@@ -0,0 +1,76 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.exception.InternalBaseException;
+import org.springframework.http.HttpStatus;
+import org.usb4java.ConfigDescriptor;
+import org.usb4java.Device;
+import org.usb4java.EndpointDescriptor;
+import org.usb4java.Interface;
+import org.usb4java.InterfaceDescriptor;
+import org.usb4java.LibUsb;
+
+/**
+ * Bulk endpoints of a printer, read from its active configuration descriptor when it is connected.
+ * {@code inEndpoint} is 0 for printers without a bulk IN (back channel) endpoint. The endpoints may belong to
+ * an alternate setting of the interface, which then has to be selected after claiming it.
+ */
+public record PrinterEndpoints(int interfaceNumber, int alternateSetting, byte outEndpoint, int outMaxPacketSize,
+                               byte inEndpoint, int inMaxPacketSize) {
+    private static final int MAX_PACKET_SIZE_MASK = 0x7FF;
+
+    public boolean hasInEndpoint() {
+        return inEndpoint != 0;
+    }
+
+    /**
+     * Picks the first interface with a bulk OUT endpoint, preferring printer-class interfaces, so composite
+     * devices (e.g. printers that also expose a mass-storage or CDC interface) use the right one.
+     */
+    public static PrinterEndpoints discover(Device device) {
+        final ConfigDescriptor config = new ConfigDescriptor();
+        final int status = LibUsb.getActiveConfigDescriptor(device, config);
+        if (status != LibUsb.SUCCESS) {
+            throw new InternalBaseException(InternalResponseCode.PRINTER_ENDPOINT_NOT_FOUND, HttpStatus.CONFLICT, "Unable to read configuration descriptor: " + LibUsb.strError(status));
+        }
+        try {
+            PrinterEndpoints fallback = null;
+            for (Interface usbInterface : config.iface()) {
+                for (InterfaceDescriptor descriptor : usbInterface.altsetting()) {
+                    final PrinterEndpoints endpoints = fromInterface(descriptor);
+                    if (endpoints == null) continue;
+                    if (descriptor.bInterfaceClass() == LibUsb.CLASS_PRINTER) return endpoints;
+                    if (fallback == null) fallback = endpoints;
+                }
+            }
+            if (fallback == null) {
+                throw new InternalBaseException(InternalResponseCode.PRINTER_ENDPOINT_NOT_FOUND, HttpStatus.CONFLICT, "Printer has no bulk OUT endpoint");
+            }
+            return fallback;
+        } finally {
+            LibUsb.freeConfigDescriptor(config);
+        }
+    }
+
+    private static PrinterEndpoints fromInterface(InterfaceDescriptor descriptor) {
+        byte outEndpoint = 0;
+        int outMaxPacketSize = 0;
+        byte inEndpoint = 0;
+        int inMaxPacketSize = 0;
+        for (EndpointDescriptor endpoint : descriptor.endpoint()) {
+            if ((endpoint.bmAttributes() & LibUsb.TRANSFER_TYPE_MASK) != LibUsb.TRANSFER_TYPE_BULK) continue;
+            final int maxPacketSize = endpoint.wMaxPacketSize() & MAX_PACKET_SIZE_MASK;
+            if (maxPacketSize == 0) continue;
+            final boolean in = (endpoint.bEndpointAddress() & LibUsb.ENDPOINT_DIR_MASK) == LibUsb.ENDPOINT_IN;
+            if (in && inEndpoint == 0) {
+                inEndpoint = endpoint.bEndpointAddress();
+                inMaxPacketSize = maxPacketSize;
+            } else if (!in && outEndpoint == 0) {
+                outEndpoint = endpoint.bEndpointAddress();
+                outMaxPacketSize = maxPacketSize;
+            }
+        }
+        if (outEndpoint == 0) return null;
+        return new PrinterEndpoints(descriptor.bInterfaceNumber() & 0xFF, descriptor.bAlternateSetting() & 0xFF, outEndpoint, outMaxPacketSize, inEndpoint, inMaxPacketSize);
+    }
+}
@@ -0,0 +1,189 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import id.segari.service.common.dto.printer.PrinterConnectionState;
+import id.segari.service.common.dto.printer.PrinterHealthStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static id.segari.service.common.dto.printer.PrinterTopicConstants.STATUS_TOPIC;
+
+/**
+ * Tracks the connection state of every connected printer from inventory hotplug/poll events plus a periodic
+ * in-memory probe, so {@link #isConnected(int)} is a plain map read. When a tracked printer is unplugged its
+ * handle is released, and when the same serial shows up again the interface is claimed back through the
+ * {@link PrinterReclaimer}. State changes are published to the printer status topic.
+ */
+@Component
+public class PrinterHealthMonitor implements UsbInventoryListener {
+    private static final Logger log = LoggerFactory.getLogger(PrinterHealthMonitor.class);
+
+    private final UsbDeviceInventory deviceInventory;
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long probeIntervalMs;
+    private final Map<Integer, TrackedPrinter> trackedById = new ConcurrentHashMap<>();
+
+    private volatile PrinterReclaimer reclaimer;
+    private ScheduledFuture<?> probeTask;
+
+    public PrinterHealthMonitor(UsbDeviceInventory deviceInventory,
+                                SimpMessagingTemplate simpMessagingTemplate,
+                                ScheduledExecutorService scheduledExecutorService,
+                                @Value("${printer.health.probe-interval-ms:5000}") long probeIntervalMs) {
+        this.deviceInventory = deviceInventory;
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.probeIntervalMs = probeIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        deviceInventory.addListener(this);
+        probeTask = scheduledExecutorService.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void setReclaimer(PrinterReclaimer reclaimer) {
+        this.reclaimer = reclaimer;
+    }
+
+    public void track(int id, Printer printer) {
+        final TrackedPrinter tracked = new TrackedPrinter(id, printer.vendorId(), printer.productId(), printer.serialNumber());
+        trackedById.put(id, tracked);
+        publish(tracked);
+    }
+
+    public boolean untrack(int id) {
+        return trackedById.remove(id) != null;
+    }
+
+    public boolean isTracked(int id) {
+        return trackedById.containsKey(id);
+    }
+
+    public boolean isConnected(int id) {
+        final TrackedPrinter tracked = trackedById.get(id);
+        return tracked != null && tracked.state == PrinterConnectionState.CONNECTED;
+    }
+
+    public List<PrinterHealthStatus> getStatuses() {
+        return trackedById.values().stream().map(TrackedPrinter::toStatus).toList();
+    }
+
+    /**
+     * Called by the print path when a transfer reports that the device is gone, which is usually noticed
+     * before the inventory catches up.
+     */
+    public void reportDeviceGone(int id) {
+        final TrackedPrinter tracked = trackedById.get(id);
+        if (tracked != null) markDisconnected(tracked);
+    }
+
+    @Override
+    public void onDeviceArrived(UsbPrinterDevice device) {
+        for (TrackedPrinter tracked : trackedById.values()) {
+            if (tracked.state == PrinterConnectionState.DISCONNECTED
+                    && device.matches(tracked.vendorId, tracked.productId, tracked.serialNumber)) {
+                scheduledExecutorService.execute(() -> reclaim(tracked));
+            }
+        }
+    }
+
+    @Override
+    public void onDeviceLeft(UsbPrinterDevice device) {
+        if (!device.isDescribed()) return;
+        for (TrackedPrinter tracked : trackedById.values()) {
+            if (device.matches(tracked.vendorId, tracked.productId, tracked.serialNumber)) markDisconnected(tracked);
+        }
+    }
+
+    private void probe() {
+        try {
+            for (TrackedPrinter tracked : trackedById.values()) {
+                final boolean present = deviceInventory.find(tracked.vendorId, tracked.productId, tracked.serialNumber).isPresent();
+                if (tracked.state == PrinterConnectionState.CONNECTED && !present) {
+                    markDisconnected(tracked);
+                } else if (tracked.state == PrinterConnectionState.DISCONNECTED && present) {
+                    reclaim(tracked);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Printer health probe failed: {}", e.getMessage());
+        }
+    }
+
+    private void markDisconnected(TrackedPrinter tracked) {
+        if (!tracked.transition(PrinterConnectionState.DISCONNECTED)) return;
+        log.warn("Printer id={} serial={} went offline", tracked.id, tracked.serialNumber);
+        publish(tracked);
+        final PrinterReclaimer current = reclaimer;
+        if (current != null) scheduledExecutorService.execute(() -> current.release(tracked.id));
+    }
+
+    private void reclaim(TrackedPrinter tracked) {
+        final PrinterReclaimer current = reclaimer;
+        if (current == null || tracked.state != PrinterConnectionState.DISCONNECTED) return;
+        if (trackedById.get(tracked.id) != tracked) return;
+        if (!current.reclaim(tracked.id, tracked.vendorId, tracked.productId, tracked.serialNumber)) {
+            log.debug("Printer id={} is back on the bus but could not be claimed yet", tracked.id);
+            return;
+        }
+        if (tracked.transition(PrinterConnectionState.CONNECTED)) {
+            log.info("Printer id={} serial={} reconnected", tracked.id, tracked.serialNumber);
+            publish(tracked);
+        }
+    }
+
+    private void publish(TrackedPrinter tracked) {
+        try {
+            simpMessagingTemplate.convertAndSend(STATUS_TOPIC, tracked.toStatus());
+        } catch (Exception e) {
+            log.debug("Unable to publish printer status: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (probeTask != null) probeTask.cancel(false);
+        trackedById.clear();
+    }
+
+    private static final class TrackedPrinter {
+        private final int id;
+        private final short vendorId;
+        private final short productId;
+        private final String serialNumber;
+        private volatile PrinterConnectionState state = PrinterConnectionState.CONNECTED;
+        private volatile LocalDateTime changedAt = LocalDateTime.now();
+
+        private TrackedPrinter(int id, short vendorId, short productId, String serialNumber) {
+            this.id = id;
+            this.vendorId = vendorId;
+            this.productId = productId;
+            this.serialNumber = serialNumber;
+        }
+
+        private synchronized boolean transition(PrinterConnectionState next) {
+            if (state == next) return false;
+            state = next;
+            changedAt = LocalDateTime.now();
+            return true;
+        }
+
+        private PrinterHealthStatus toStatus() {
+            return new PrinterHealthStatus(id, serialNumber, state, changedAt);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package id.segari.service.service.impl.zpl_printer;
+
+/**
+ * Lets {@link PrinterHealthMonitor} drop the handle of an unplugged printer and claim it again after it
+ * is plugged back in, without depending on the printer service itself.
+ */
+public interface PrinterReclaimer {
+    void release(int id);
+    boolean reclaim(int id, short vendorId, short productId, String serialNumber);
+}
@@ -0,0 +1,148 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import id.segari.service.common.dto.printer.PrinterHostStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static id.segari.service.common.dto.printer.PrinterTopicConstants.HOST_STATUS_TOPIC;
+
+/**
+ * Polls {@code ~HS} over the bulk IN endpoint of tracked printers and keeps the latest host status, so the
+ * print queue can hold jobs while a printer is paused, out of media or has a full receive buffer. Printers
+ * that are not ready are polled every {@code printer.status.held-poll-interval-ms} so they resume as soon as
+ * they clear. A printer that stops answering falls back to an unknown status, which does not hold jobs.
+ */
+@Component
+public class PrinterStatusMonitor {
+    private static final Logger log = LoggerFactory.getLogger(PrinterStatusMonitor.class);
+    private static final int MAX_MISSED_POLLS = 3;
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final boolean enabled;
+    private final long pollIntervalMs;
+    private final long heldPollIntervalMs;
+    private final Map<Integer, PolledPrinter> polledById = new ConcurrentHashMap<>();
+
+    private volatile PrinterStatusSource source;
+    private ScheduledFuture<?> pollTask;
+
+    public PrinterStatusMonitor(SimpMessagingTemplate simpMessagingTemplate,
+                                ScheduledExecutorService scheduledExecutorService,
+                                @Value("${printer.status.enabled:true}") boolean enabled,
+                                @Value("${printer.status.poll-interval-ms:1000}") long pollIntervalMs,
+                                @Value("${printer.status.held-poll-interval-ms:250}") long heldPollIntervalMs) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.enabled = enabled;
+        this.pollIntervalMs = pollIntervalMs;
+        this.heldPollIntervalMs = heldPollIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        pollTask = scheduledExecutorService.scheduleWithFixedDelay(this::pollDue, heldPollIntervalMs, heldPollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void setSource(PrinterStatusSource source) {
+        this.source = source;
+    }
+
+    public void track(int id) {
+        if (enabled) polledById.put(id, new PolledPrinter(id));
+    }
+
+    public void untrack(int id) {
+        polledById.remove(id);
+    }
+
+    public boolean isReady(int id) {
+        final PolledPrinter polled = polledById.get(id);
+        final PrinterHostStatus status = polled != null ? polled.status : null;
+        return status == null || status.isReady();
+    }
+
+    public List<PrinterHostStatus> getStatuses() {
+        return polledById.values().stream().map(polled -> polled.status).filter(Objects::nonNull).toList();
+    }
+
+    private void pollDue() {
+        final long now = System.nanoTime();
+        for (PolledPrinter polled : polledById.values()) {
+            if (polled.polling || now < polled.nextPollAt) continue;
+            polled.polling = true;
+            // The query waits on the printer, so it runs off the shared scheduler
+            Thread.ofVirtual().start(() -> poll(polled));
+        }
+    }
+
+    private void poll(PolledPrinter polled) {
+        try {
+            final PrinterStatusSource current = source;
+            final String response = current != null ? current.queryHostStatus(polled.id) : null;
+            final PrinterHostStatus status = response != null ? ZplHostStatusParser.parse(polled.id, response) : null;
+            if (status != null) {
+                polled.missedPolls = 0;
+                update(polled, status);
+            } else if (++polled.missedPolls == MAX_MISSED_POLLS && polled.status != null) {
+                log.warn("Printer id={} stopped answering host status queries", polled.id);
+                update(polled, null);
+            }
+        } catch (Exception e) {
+            log.debug("Host status poll failed for printer id={}: {}", polled.id, e.getMessage());
+        } finally {
+            final boolean held = polled.status != null && !polled.status.isReady();
+            polled.nextPollAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(held ? heldPollIntervalMs : pollIntervalMs);
+            polled.polling = false;
+        }
+    }
+
+    private void update(PolledPrinter polled, PrinterHostStatus status) {
+        final PrinterHostStatus previous = polled.status;
+        polled.status = status;
+        if (status == null || status.sameFlags(previous)) return;
+        if (!status.isReady()) {
+            log.warn("Holding jobs for printer id={}: paused={}, bufferFull={}, paperOut={}, headUp={}",
+                    polled.id, status.paused(), status.bufferFull(), status.paperOut(), status.headUp());
+        } else if (previous != null && !previous.isReady()) {
+            log.info("Printer id={} is ready again", polled.id);
+        }
+        try {
+            simpMessagingTemplate.convertAndSend(HOST_STATUS_TOPIC, status);
+        } catch (Exception e) {
+            log.debug("Unable to publish printer host status: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pollTask != null) pollTask.cancel(false);
+        polledById.clear();
+    }
+
+    private static final class PolledPrinter {
+        private final int id;
+        private volatile PrinterHostStatus status;
+        private volatile boolean polling;
+        private volatile long nextPollAt = System.nanoTime();
+        private volatile int missedPolls;
+
+        private PolledPrinter(int id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import org.springframework.lang.Nullable;
+
+/** Sends a host status query to a printer; implemented by the printer service, which owns the printer locks. */
+public interface PrinterStatusSource {
+    /** @return the raw response, or null when the printer is busy, gone or did not answer */
+    @Nullable
+    String queryHostStatus(int id);
+}
@@ -0,0 +1,257 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.exception.InternalBaseException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.usb4java.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the long-lived libusb {@link Context} shared by all printers and keeps an in-memory inventory of
+ * plugged printers keyed by bus/port location. The inventory is refreshed from hotplug callbacks when the
+ * platform supports them (Linux/macOS) and by polling otherwise (Windows), so listing printers never
+ * touches the bus. String descriptors are read once, when a device first shows up.
+ */
+@Component
+public class UsbDeviceInventory {
+    private static final Logger log = LoggerFactory.getLogger(UsbDeviceInventory.class);
+    private static final int MAX_PORT_DEPTH = 7;
+    private static final long HOTPLUG_SAFETY_POLL_MS = 30_000;
+
+    private final UsbTransferEngine transferEngine;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long pollIntervalMs;
+    private final Map<String, UsbPrinterDevice> deviceByLocation = new ConcurrentHashMap<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final HotplugCallbackHandle hotplugHandle = new HotplugCallbackHandle();
+    private final List<UsbInventoryListener> listeners = new CopyOnWriteArrayList<>();
+
+    private Context context;
+    private boolean hotplugRegistered;
+    private ScheduledFuture<?> pollTask;
+
+    public UsbDeviceInventory(UsbTransferEngine transferEngine, ScheduledExecutorService scheduledExecutorService,
+                              @Value("${printer.usb.poll-interval-ms:2000}") long pollIntervalMs) {
+        this.transferEngine = transferEngine;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        final Context sharedContext = new Context();
+        final int status = LibUsb.init(sharedContext);
+        if (status != LibUsb.SUCCESS) {
+            log.error("Unable to initialize libusb: {}. USB printers will be unavailable.", LibUsb.strError(status));
+            return;
+        }
+        context = sharedContext;
+        transferEngine.register(context);
+        refresh();
+        hotplugRegistered = registerHotplug();
+        final long interval = hotplugRegistered ? HOTPLUG_SAFETY_POLL_MS : pollIntervalMs;
+        pollTask = scheduledExecutorService.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("USB inventory started: hotplug={}, poll interval={}ms, printers={}", hotplugRegistered, interval, deviceByLocation.size());
+    }
+
+    public void addListener(UsbInventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    public Context context() {
+        if (context == null) {
+            throw new InternalBaseException(InternalResponseCode.INIT_CONTEXT_FAILED, HttpStatus.CONFLICT, "Unable to initialize libusb");
+        }
+        return context;
+    }
+
+    public List<UsbPrinterDevice> getDevices() {
+        return List.copyOf(deviceByLocation.values());
+    }
+
+    public Optional<UsbPrinterDevice> find(short vendorId, short productId, String serialNumber) {
+        for (UsbPrinterDevice device : deviceByLocation.values()) {
+            if (device.matches(vendorId, productId, serialNumber)) return Optional.of(device);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the location of {@code device} in the same format used by {@link UsbPrinterDevice#location()}.
+     */
+    public String locationOf(Device device) {
+        return UsbPrinterDevice.location(LibUsb.getBusNumber(device), getPortPath(device));
+    }
+
+    /**
+     * Rescans the bus. Devices already in the inventory are only compared by location and ids; only new
+     * (or not yet describable) printers are opened to read their product name and serial number.
+     */
+    public void refresh() {
+        if (context == null) return;
+        refreshLock.lock();
+        try {
+            final DeviceList devices = new DeviceList();
+            final int status = LibUsb.getDeviceList(context, devices);
+            if (status < 0) {
+                log.warn("Unable to get device list: {}", LibUsb.strError(status));
+                return;
+            }
+            try {
+                final Set<String> seen = new HashSet<>();
+                for (Device device : devices) {
+                    final UsbPrinterDevice known = scanDevice(device);
+                    if (known != null) seen.add(known.location());
+                }
+                for (String location : List.copyOf(deviceByLocation.keySet())) {
+                    if (!seen.contains(location)) removeDevice(location);
+                }
+            } finally {
+                LibUsb.freeDeviceList(devices, true);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @Nullable
+    private UsbPrinterDevice scanDevice(Device device) {
+        final DeviceDescriptor descriptor = new DeviceDescriptor();
+        if (LibUsb.getDeviceDescriptor(device, descriptor) != LibUsb.SUCCESS) return null;
+        if (!isPrinter(descriptor)) return null;
+
+        final String location = locationOf(device);
+        final UsbPrinterDevice known = deviceByLocation.get(location);
+        if (known != null && known.isDescribed()
+                && known.vendorId() == descriptor.idVendor() && known.productId() == descriptor.idProduct()) {
+            return known;
+        }
+        final UsbPrinterDevice scanned = new UsbPrinterDevice(
+                LibUsb.getBusNumber(device),
+                getPortPath(device),
+                descriptor.idVendor(),
+                descriptor.idProduct(),
+                describe(device, descriptor)
+        );
+        deviceByLocation.put(location, scanned);
+        if (scanned.isDescribed()) {
+            for (UsbInventoryListener listener : listeners) listener.onDeviceArrived(scanned);
+        }
+        return scanned;
+    }
+
+    private void removeDevice(String location) {
+        final UsbPrinterDevice removed = deviceByLocation.remove(location);
+        if (removed == null) return;
+        for (UsbInventoryListener listener : listeners) listener.onDeviceLeft(removed);
+    }
+
+    @Nullable
+    private PrinterDescription describe(Device device, DeviceDescriptor descriptor) {
+        final DeviceHandle deviceHandle = new DeviceHandle();
+        if (LibUsb.open(device, deviceHandle) != LibUsb.SUCCESS) return null;
+        try {
+            return new PrinterDescription(
+                    getProductName(descriptor, deviceHandle),
+                    LibUsb.getStringDescriptor(deviceHandle, descriptor.iSerialNumber())
+            );
+        } catch (Exception e) {
+            return new PrinterDescription(getUnknown(), getUnknown());
+        } finally {
+            LibUsb.close(deviceHandle);
+        }
+    }
+
+    private boolean registerHotplug() {
+        if (!LibUsb.hasCapability(LibUsb.CAP_HAS_HOTPLUG)) return false;
+        final int status = LibUsb.hotplugRegisterCallback(context,
+                LibUsb.HOTPLUG_EVENT_DEVICE_ARRIVED | LibUsb.HOTPLUG_EVENT_DEVICE_LEFT,
+                LibUsb.HOTPLUG_NO_FLAGS,
+                LibUsb.HOTPLUG_MATCH_ANY, LibUsb.HOTPLUG_MATCH_ANY, LibUsb.HOTPLUG_MATCH_ANY,
+                this::onHotplug, null, hotplugHandle);
+        if (status != LibUsb.SUCCESS) {
+            log.warn("Unable to register hotplug callback: {}. Falling back to polling.", LibUsb.strError(status));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Runs on the libusb event thread, where synchronous I/O is not allowed: removals are applied directly,
+     * arrivals trigger a rescan on the scheduler.
+     */
+    private int onHotplug(Context context, Device device, int event, Object userData) {
+        if (event == LibUsb.HOTPLUG_EVENT_DEVICE_LEFT) {
+            removeDevice(locationOf(device));
+        } else {
+            scheduledExecutorService.execute(this::refreshQuietly);
+        }
+        return 0;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("USB inventory refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private String getPortPath(Device device) {
+        final ByteBuffer ports = ByteBuffer.allocateDirect(MAX_PORT_DEPTH);
+        final int depth = LibUsb.getPortNumbers(device, ports);
+        if (depth <= 0) return String.valueOf(LibUsb.getPortNumber(device));
+        final StringJoiner path = new StringJoiner(".");
+        for (int i = 0; i < depth; i++) path.add(String.valueOf(ports.get(i) & 0xFF));
+        return path.toString();
+    }
+
+    private String getProductName(DeviceDescriptor descriptor, DeviceHandle deviceHandle) {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+        final int status = LibUsb.getStringDescriptor(deviceHandle, descriptor.iProduct(), (short) 0x0409, buffer);
+        if (status < 0) return getUnknown();
+        final byte[] bytes = new byte[status];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_16LE);
+    }
+
+    private String getUnknown() {
+        return "UNKNOWN";
+    }
+
+    private boolean isPrinter(DeviceDescriptor descriptor) {
+        return descriptor.bDeviceClass() == 7 || isPrinterVendor(descriptor.idVendor());
+    }
+
+    private boolean isPrinterVendor(short vendorId) {
+        return vendorId == 0x0A5F || // Zebra
+                vendorId == 0x2D37;   // XPrinter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pollTask != null) pollTask.cancel(false);
+        if (context == null) return;
+        if (hotplugRegistered) LibUsb.hotplugDeregisterCallback(context, hotplugHandle);
+        transferEngine.unregister(context);
+        LibUsb.exit(context);
+        deviceByLocation.clear();
+        context = null;
+    }
+}
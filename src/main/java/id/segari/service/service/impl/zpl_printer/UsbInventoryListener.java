@@ -0,0 +1,10 @@
+package id.segari.service.service.impl.zpl_printer;
+
+/**
+ * Notified by {@link UsbDeviceInventory} when a printer appears on or leaves the bus. Departures can be
+ * delivered on the libusb event thread, so implementations must not do USB I/O inline.
+ */
+public interface UsbInventoryListener {
+    void onDeviceArrived(UsbPrinterDevice device);
+    void onDeviceLeft(UsbPrinterDevice device);
+}
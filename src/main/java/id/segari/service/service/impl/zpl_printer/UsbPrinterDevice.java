@@ -0,0 +1,28 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * A printer seen on the bus. {@code portPath} is the hub port chain (for example {@code 1.4.2}); together
+ * with the bus number it identifies the physical socket, and the serial number identifies the printer.
+ * {@code description} stays null while the device could not be opened to read its string descriptors.
+ */
+public record UsbPrinterDevice(int busNumber, String portPath, short vendorId, short productId,
+                               @Nullable PrinterDescription description) {
+    public String location() {
+        return location(busNumber, portPath);
+    }
+
+    public boolean isDescribed() {
+        return description != null;
+    }
+
+    public boolean matches(short vendorId, short productId, String serialNumber) {
+        return this.vendorId == vendorId && this.productId == productId
+                && description != null && serialNumber.equals(description.serialNumber());
+    }
+
+    static String location(int busNumber, String portPath) {
+        return busNumber + "-" + portPath;
+    }
+}
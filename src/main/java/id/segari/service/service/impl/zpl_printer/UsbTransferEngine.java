@@ -0,0 +1,119 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.usb4java.Context;
+import org.usb4java.DeviceHandle;
+import org.usb4java.LibUsb;
+import org.usb4java.Transfer;
+import org.usb4java.TransferCallback;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Submits bulk transfers through the libusb asynchronous API. Each registered {@link Context} gets
+ * one platform thread that handles its events and completes the returned futures, so callers (usually
+ * virtual threads) park on the future instead of pinning a carrier inside a native call.
+ */
+@Component
+public class UsbTransferEngine {
+    private static final Logger log = LoggerFactory.getLogger(UsbTransferEngine.class);
+    private static final long EVENT_TIMEOUT_US = 250_000;
+    private static final long DRAIN_TIMEOUT_MS = 1_000;
+
+    private final Map<Context, EventLoop> eventLoops = new ConcurrentHashMap<>();
+    private final TransferCallback callback = this::onTransferComplete;
+
+    public void register(Context context) {
+        eventLoops.computeIfAbsent(context, EventLoop::start);
+    }
+
+    public void unregister(Context context) {
+        final EventLoop eventLoop = eventLoops.remove(context);
+        if (eventLoop != null) eventLoop.stop();
+    }
+
+    public CompletableFuture<UsbTransferResult> submitBulk(Context context, DeviceHandle deviceHandle, byte endpoint,
+                                                           ByteBuffer buffer, long timeoutMs) {
+        final EventLoop eventLoop = eventLoops.get(context);
+        if (eventLoop == null) {
+            return CompletableFuture.completedFuture(new UsbTransferResult(LibUsb.ERROR_NOT_FOUND, 0));
+        }
+        final PendingTransfer pending = new PendingTransfer(eventLoop, new CompletableFuture<>());
+        final Transfer transfer = LibUsb.allocTransfer();
+        LibUsb.fillBulkTransfer(transfer, deviceHandle, endpoint, buffer, callback, pending, timeoutMs);
+        eventLoop.inFlight.add(transfer);
+        final int status = LibUsb.submitTransfer(transfer);
+        if (status != LibUsb.SUCCESS) {
+            eventLoop.inFlight.remove(transfer);
+            LibUsb.freeTransfer(transfer);
+            pending.future().complete(new UsbTransferResult(status, 0));
+        }
+        return pending.future();
+    }
+
+    private void onTransferComplete(Transfer transfer) {
+        final PendingTransfer pending = (PendingTransfer) transfer.userData();
+        final UsbTransferResult result = new UsbTransferResult(transfer.status(), transfer.actualLength());
+        pending.eventLoop().inFlight.remove(transfer);
+        LibUsb.freeTransfer(transfer);
+        pending.future().complete(result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Context context : eventLoops.keySet()) unregister(context);
+    }
+
+    private record PendingTransfer(EventLoop eventLoop, CompletableFuture<UsbTransferResult> future) {}
+
+    private static final class EventLoop implements Runnable {
+        private final Context context;
+        private final Set<Transfer> inFlight = ConcurrentHashMap.newKeySet();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private EventLoop(Context context) {
+            this.context = context;
+            this.thread = Thread.ofPlatform().daemon().name("usb-events-" + context.getPointer()).unstarted(this);
+        }
+
+        static EventLoop start(Context context) {
+            final EventLoop eventLoop = new EventLoop(context);
+            eventLoop.thread.start();
+            return eventLoop;
+        }
+
+        @Override
+        public void run() {
+            while (running || !inFlight.isEmpty()) {
+                final int status = LibUsb.handleEventsTimeout(context, EVENT_TIMEOUT_US);
+                if (status != LibUsb.SUCCESS && status != LibUsb.ERROR_INTERRUPTED) {
+                    log.warn("libusb event handling failed: {}", LibUsb.strError(status));
+                }
+            }
+        }
+
+        /**
+         * Cancels whatever is still in flight and waits for the cancellations to be delivered before
+         * the caller closes handles or exits the context.
+         */
+        void stop() {
+            running = false;
+            for (Transfer transfer : inFlight) LibUsb.cancelTransfer(transfer);
+            LibUsb.interruptEventHandler(context);
+            try {
+                thread.join(DRAIN_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) log.warn("libusb event thread for context {} did not stop in time", context.getPointer());
+        }
+    }
+}
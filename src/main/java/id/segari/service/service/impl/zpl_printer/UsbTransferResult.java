@@ -0,0 +1,22 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import org.usb4java.LibUsb;
+
+public record UsbTransferResult(int status, int transferred) {
+    public boolean isCompleted() {
+        return status == LibUsb.TRANSFER_COMPLETED;
+    }
+
+    public String error() {
+        return switch (status) {
+            case LibUsb.TRANSFER_COMPLETED -> null;
+            case LibUsb.TRANSFER_TIMED_OUT -> "Transfer timed out";
+            case LibUsb.TRANSFER_CANCELLED -> "Transfer cancelled";
+            case LibUsb.TRANSFER_STALL -> "Endpoint stalled";
+            case LibUsb.TRANSFER_NO_DEVICE -> "Device disconnected";
+            case LibUsb.TRANSFER_OVERFLOW -> "Device sent more data than requested";
+            case LibUsb.TRANSFER_ERROR -> "Transfer failed";
+            default -> "Transfer could not be submitted: " + LibUsb.strError(status);
+        };
+    }
+}
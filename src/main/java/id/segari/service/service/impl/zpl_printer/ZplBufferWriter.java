@@ -0,0 +1,126 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes ZPL text as UTF-8 straight into a reusable direct buffer. Text is staged through a small
+ * fixed char chunk, so writing a job does not allocate once the buffer has reached its working size.
+ * Not thread-safe; instances are handed out by {@link PrintBufferPool}.
+ */
+public final class ZplBufferWriter {
+    private static final int CHUNK_SIZE = 4096;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final char[] chunk = new char[CHUNK_SIZE];
+    private final CharBuffer chars = CharBuffer.wrap(chunk);
+    private ByteBuffer buffer;
+    private int finishedSize;
+
+    ZplBufferWriter(int capacity) {
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    void reset() {
+        encoder.reset();
+        finishedSize = 0;
+        chars.clear();
+        buffer.clear();
+    }
+
+    public void write(CharSequence text) {
+        final int length = text.length();
+        int offset = 0;
+        while (offset < length) {
+            final int count = Math.min(chars.remaining(), length - offset);
+            copyChars(text, offset, count);
+            offset += count;
+            chars.flip();
+            encode(false);
+            chars.compact();
+        }
+    }
+
+    /** UTF-8 length of the text, as {@link #write} would encode it. */
+    public static int encodedLength(CharSequence text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Number of bytes written so far. Used to mark job boundaries inside a batch.
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Flushes the encoder and returns the buffer ready for transfer. The returned buffer stays owned
+     * by this writer and must not be used after the writer is released.
+     */
+    ByteBuffer finish() {
+        chars.flip();
+        encode(true);
+        while (encoder.flush(buffer).isOverflow()) grow(buffer.capacity());
+        buffer.flip();
+        finishedSize = buffer.limit();
+        return buffer;
+    }
+
+    int finishedSize() {
+        return finishedSize;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    void resize(int capacity) {
+        buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    private void copyChars(CharSequence text, int offset, int count) {
+        final int start = chars.position();
+        if (text instanceof String string) {
+            string.getChars(offset, offset + count, chunk, start);
+        } else {
+            for (int i = 0; i < count; i++) chunk[start + i] = text.charAt(offset + i);
+        }
+        chars.position(start + count);
+    }
+
+    private void encode(boolean endOfInput) {
+        while (true) {
+            final CoderResult result = encoder.encode(chars, buffer, endOfInput);
+            if (!result.isOverflow()) return;
+            grow(Math.max(chars.remaining(), CHUNK_SIZE));
+        }
+    }
+
+    private void grow(int minimumExtra) {
+        final int capacity = Math.max(buffer.capacity() * 2, buffer.capacity() + minimumExtra);
+        final ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
@@ -0,0 +1,15 @@
+package id.segari.service.service.impl.zpl_printer;
+
+/**
+ * A label split into a stored format and its per-label field data.
+ *
+ * @param name       printer object name, e.g. {@code R:1A2B3C4D.ZPL}
+ * @param digest     SHA-256 of the format, the name is its first 8 hex characters
+ * @param definition {@code ^DF} command that stores the format on the printer
+ * @param recall     {@code ^XF} command that prints the stored format with this label's fields
+ */
+record ZplFormat(String name, String digest, String definition, String recall) {
+    int size() {
+        return definition.length();
+    }
+}
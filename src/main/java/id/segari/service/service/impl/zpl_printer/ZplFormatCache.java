@@ -0,0 +1,72 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Formats currently stored in one printer's memory, least recently used first. The first job with a new
+ * layout downloads its format with {@code ^DF}; later jobs only send the {@code ^XF} recall and field data.
+ * When the byte budget is exceeded the oldest formats are deleted from the printer with {@code ^ID}. A
+ * layout whose name collides with a stored one of different content replaces it on the printer.
+ * Not thread-safe; used under the printer lock.
+ */
+final class ZplFormatCache {
+    private final long maxBytes;
+    private final int minFormatBytes;
+    private final LinkedHashMap<String, Stored> storedByName = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    ZplFormatCache(long maxBytes, int minFormatBytes) {
+        this.maxBytes = maxBytes;
+        this.minFormatBytes = minFormatBytes;
+    }
+
+    /**
+     * Writes the job, preceded by its format download when the printer does not hold it yet.
+     *
+     * @return name of the format downloaded by this write, to {@link #forget} if the transfer fails
+     */
+    @Nullable
+    String write(ZplBufferWriter writer, String command) {
+        final ZplFormat format = maxBytes > 0 ? ZplFormatExtractor.extract(command, minFormatBytes) : null;
+        if (format == null || format.size() > maxBytes) {
+            writer.write(command);
+            return null;
+        }
+        final Stored stored = storedByName.get(format.name());
+        if (stored != null && stored.digest().equals(format.digest())) {
+            writer.write(format.recall());
+            return null;
+        }
+        // ^DF under the same name overwrites the colliding format
+        forget(format.name());
+        evict(writer, format.size());
+        writer.write(format.definition());
+        writer.write(format.recall());
+        storedByName.put(format.name(), new Stored(format.digest(), format.size()));
+        usedBytes += format.size();
+        return format.name();
+    }
+
+    void forget(@Nullable String name) {
+        if (name == null) return;
+        final Stored stored = storedByName.remove(name);
+        if (stored != null) usedBytes -= stored.size();
+    }
+
+    private void evict(ZplBufferWriter writer, int incomingBytes) {
+        final Iterator<Map.Entry<String, Stored>> eldest = storedByName.entrySet().iterator();
+        while (usedBytes + incomingBytes > maxBytes && eldest.hasNext()) {
+            final Map.Entry<String, Stored> entry = eldest.next();
+            writer.write("^XA^ID" + entry.getKey() + "^FS^XZ");
+            usedBytes -= entry.getValue().size();
+            eldest.remove();
+        }
+    }
+
+    private record Stored(String digest, int size) {
+    }
+}
@@ -0,0 +1,79 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Turns a single {@code ^XA...^XZ} label into a {@link ZplFormat}: every {@code ^FD...^FS} field becomes a
+ * numbered {@code ^FN} slot in the format, everything else (layout, fonts, {@code ^GF} graphics) stays in the
+ * format. The format is named after its content hash, so identical layouts share one stored format; ZPL
+ * object names are at most 8 characters, so the name holds 32 bits of the hash and the full digest is kept
+ * to tell colliding layouts apart.
+ */
+final class ZplFormatExtractor {
+    private static final String[] UNSUPPORTED_COMMANDS = {"^DF", "^XF", "^FN", "^FV", "^SN", "^SF", "^CC", "^CT", "^XA", "^XZ"};
+    private static final int MAX_FIELDS = 9999;
+    private static final int NAME_HEX_LENGTH = 8;
+
+    private ZplFormatExtractor() {
+    }
+
+    /**
+     * @return the split label, or {@code null} when the command is not a single plain label or its format
+     * is smaller than {@code minFormatBytes} and not worth storing
+     */
+    @Nullable
+    static ZplFormat extract(String command, int minFormatBytes) {
+        final String label = command.strip();
+        if (!label.startsWith("^XA") || !label.endsWith("^XZ") || label.length() < 6) return null;
+        final String body = label.substring(3, label.length() - 3);
+        if (body.indexOf('~') >= 0) return null;
+        for (String unsupported : UNSUPPORTED_COMMANDS) {
+            if (body.contains(unsupported)) return null;
+        }
+
+        final StringBuilder format = new StringBuilder(body.length());
+        final StringBuilder fields = new StringBuilder();
+        int position = 0;
+        int field = 0;
+        int fieldData;
+        while ((fieldData = body.indexOf("^FD", position)) >= 0) {
+            final int fieldEnd = body.indexOf("^FS", fieldData);
+            if (fieldEnd < 0 || ++field > MAX_FIELDS) return null;
+            // ^FH belongs to the field data it escapes, so it travels with the recall
+            final int fieldStart = isHexIndicator(body, position, fieldData) ? body.lastIndexOf("^FH", fieldData) : fieldData;
+            format.append(body, position, fieldStart).append("^FN").append(field);
+            fields.append("^FN").append(field).append(body, fieldStart, fieldEnd).append("^FS");
+            position = fieldEnd;
+        }
+        format.append(body, position, body.length());
+        if (format.length() < minFormatBytes) return null;
+
+        final String digest = hash(format);
+        final String name = "R:" + digest.substring(0, NAME_HEX_LENGTH) + ".ZPL";
+        return new ZplFormat(name, digest,
+                "^XA^DF" + name + "^FS" + format + "^XZ",
+                "^XA^XF" + name + "^FS" + fields + "^XZ");
+    }
+
+    private static boolean isHexIndicator(String body, int from, int fieldData) {
+        final int hexIndicator = body.lastIndexOf("^FH", fieldData);
+        if (hexIndicator < from) return false;
+        // "^FH" optionally followed by its indicator character, directly before ^FD
+        final int gap = fieldData - (hexIndicator + 3);
+        return gap == 0 || (gap == 1 && body.charAt(hexIndicator + 3) != '^');
+    }
+
+    private static String hash(CharSequence format) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(format.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().withUpperCase().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
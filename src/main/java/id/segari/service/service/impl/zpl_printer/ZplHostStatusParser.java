@@ -0,0 +1,57 @@
+package id.segari.service.service.impl.zpl_printer;
+
+import id.segari.service.common.dto.printer.PrinterHostStatus;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the {@code ~HS} response: three STX ... ETX framed strings, of which the first two carry the flags
+ * ({@code aaa,b,c,dddd,eee,f,g,h,iii,j,k,l} and {@code mmm,n,o,p,q,r,s,t,uuuuuuuu,v,www}).
+ */
+final class ZplHostStatusParser {
+    private static final char STX = 0x02;
+    private static final char ETX = 0x03;
+
+    private ZplHostStatusParser() {
+    }
+
+    /** @return null when the response does not contain two complete status strings */
+    @Nullable
+    static PrinterHostStatus parse(int printerId, String response) {
+        final List<String[]> strings = new ArrayList<>(3);
+        int start = response.indexOf(STX);
+        while (start >= 0 && strings.size() < 2) {
+            final int end = response.indexOf(ETX, start + 1);
+            if (end < 0) break;
+            strings.add(response.substring(start + 1, end).split(","));
+            start = response.indexOf(STX, end + 1);
+        }
+        if (strings.size() < 2 || strings.get(0).length < 12 || strings.get(1).length < 9) return null;
+        final String[] first = strings.get(0);
+        final String[] second = strings.get(1);
+        try {
+            return new PrinterHostStatus(
+                    printerId,
+                    flag(first[1]),
+                    flag(first[2]),
+                    Integer.parseInt(first[4].trim()),
+                    flag(first[5]),
+                    flag(first[10]),
+                    flag(first[11]),
+                    flag(second[2]),
+                    flag(second[3]),
+                    flag(second[7]),
+                    Integer.parseInt(second[8].trim()),
+                    LocalDateTime.now());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean flag(String value) {
+        return "1".equals(value.trim());
+    }
+}
@@ -3,32 +3,96 @@ package id.segari.service.service.impl.zpl_printer;
 import id.segari.service.common.InternalResponseCode;
 import id.segari.service.common.dto.PrinterUsb;
 import id.segari.service.common.dto.printer.PrinterConnectedResponse;
+import id.segari.service.common.dto.printer.PrinterHealthStatus;
+import id.segari.service.common.dto.printer.PrinterHostStatus;
 import id.segari.service.common.dto.printer.connect.PrinterConnectRequest;
 import id.segari.service.common.dto.printer.connect.PrinterConnectResponse;
 import id.segari.service.common.dto.printer.disconnect.PrinterDisconnectResponse;
+import id.segari.service.common.dto.printer.print.PrintBatchResult;
 import id.segari.service.common.dto.printer.print.PrinterPrintRequest;
+import id.segari.service.common.dto.printer.print.RawPrintResponse;
 import id.segari.service.exception.InternalBaseException;
+import id.segari.service.service.LabelTemplateService;
 import id.segari.service.service.PrinterService;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.usb4java.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Service
-public class ZplPrinterServiceImpl implements PrinterService {
+public class ZplPrinterServiceImpl implements PrinterService, PrinterReclaimer, PrinterStatusSource {
     private static final Logger log = LoggerFactory.getLogger(ZplPrinterServiceImpl.class);
     private static final Map<Integer, Printer> printerById = new ConcurrentHashMap<>();
     private static final Map<Integer, ReentrantLock> lockById = new ConcurrentHashMap<>();
+    private static final Map<Integer, PrintBufferPool> bufferPoolById = new ConcurrentHashMap<>();
+    private static final Map<Integer, ZplFormatCache> formatCacheById = new ConcurrentHashMap<>();
+    private static final Map<Integer, ByteBuffer> streamBufferById = new ConcurrentHashMap<>();
+    private static final Map<Integer, ByteBuffer> statusBufferById = new ConcurrentHashMap<>();
+    private static final long TRANSFER_TIMEOUT_MS = 5000;
+    private static final short ZEBRA_VENDOR_ID = 0x0A5F;
+    private static final int STREAM_CHUNK_PACKETS = 64;
+    private static final int SPOOL_BUFFER_BYTES = 64 * 1024;
+    private static final int TRANSFER_MAX_PACKETS = 128;
+    private static final long STATUS_TIMEOUT_MS = 500;
+    private static final ByteBuffer HOST_STATUS_QUERY = directBuffer("~HS".getBytes(StandardCharsets.US_ASCII));
+    private static final int HOST_STATUS_STRINGS = 3;
+    private static final int HOST_STATUS_RESPONSE_BYTES = 256;
+    private static final char ETX = 0x03;
+    private static final long STALE_STATUS_TIMEOUT_MS = 10;
+    private static final int STALE_STATUS_MAX_READS = 8;
+
+    private final UsbTransferEngine transferEngine;
+    private final UsbDeviceInventory deviceInventory;
+    private final PrinterHealthMonitor healthMonitor;
+    private final PrinterStatusMonitor statusMonitor;
+    private final LabelTemplateService labelTemplateService;
+    private final boolean formatCacheEnabled;
+    private final long formatCacheMaxBytes;
+    private final int formatCacheMinFormatBytes;
+    private final long rawMaxBytes;
+
+    public ZplPrinterServiceImpl(UsbTransferEngine transferEngine, UsbDeviceInventory deviceInventory,
+                                 PrinterHealthMonitor healthMonitor, PrinterStatusMonitor statusMonitor,
+                                 LabelTemplateService labelTemplateService,
+                                 @Value("${printer.format-cache.enabled:true}") boolean formatCacheEnabled,
+                                 @Value("${printer.format-cache.max-bytes:262144}") long formatCacheMaxBytes,
+                                 @Value("${printer.format-cache.min-format-bytes:512}") int formatCacheMinFormatBytes,
+                                 @Value("${printer.raw.max-bytes:67108864}") long rawMaxBytes) {
+        this.transferEngine = transferEngine;
+        this.deviceInventory = deviceInventory;
+        this.healthMonitor = healthMonitor;
+        this.statusMonitor = statusMonitor;
+        this.labelTemplateService = labelTemplateService;
+        this.formatCacheEnabled = formatCacheEnabled;
+        this.formatCacheMaxBytes = formatCacheMaxBytes;
+        this.formatCacheMinFormatBytes = formatCacheMinFormatBytes;
+        this.rawMaxBytes = rawMaxBytes;
+    }
+
+    @PostConstruct
+    public void registerReclaimer() {
+        healthMonitor.setReclaimer(this);
+        statusMonitor.setSource(this);
+    }
 
     @Override
     public PrinterConnectResponse connect(PrinterConnectRequest request) {
@@ -40,6 +104,10 @@ public class ZplPrinterServiceImpl implements PrinterService {
             }
             final Printer printer = openUsbDevice(request);
             printerById.put(request.id(), printer);
+            removeFormatCache(request.id());
+            healthMonitor.track(request.id(), printer);
+            // ~HS is Zebra firmware; other ZPL emulations are not polled and never hold jobs
+            if (printer.vendorId() == ZEBRA_VENDOR_ID && printer.endpoints().hasInEndpoint()) statusMonitor.track(request.id());
             log.info("Printer connected: id={}, vendorId={}, productId={}",
                 request.id(), request.vendorId(), request.productId());
             return new PrinterConnectResponse(InternalResponseCode.SUCCESS_CONNECTING_PRINTER, "Success Connecting Printer");
@@ -53,13 +121,26 @@ public class ZplPrinterServiceImpl implements PrinterService {
         final ReentrantLock lock = getLock(id);
         lock.lock();
         try {
+            final boolean tracked = healthMonitor.untrack(id);
+            statusMonitor.untrack(id);
             if (!printerById.containsKey(id)) {
-                return new PrinterDisconnectResponse(InternalResponseCode.CANNOT_FIND_CONNECTED_PRINTER, "Cannot Find Connected Printer");
+                if (!tracked) {
+                    return new PrinterDisconnectResponse(InternalResponseCode.CANNOT_FIND_CONNECTED_PRINTER, "Cannot Find Connected Printer");
+                }
+                // Printer was unplugged and is waiting to be reclaimed; there is no handle left to close
+                removeBufferPool(id);
+                removeFormatCache(id);
+                streamBufferById.remove(id);
+                statusBufferById.remove(id);
+                return new PrinterDisconnectResponse(InternalResponseCode.SUCCESS_DISCONNECTING_PRINTER, "Success Disconnecting Printer");
             }
 
             final Printer printer = printerById.remove(id);
             cleanupPrinterResources(printer, true); // Throw on error for explicit disconnect
-            removeLock(id);
+            removeBufferPool(id);
+            removeFormatCache(id);
+            streamBufferById.remove(id);
+            statusBufferById.remove(id);
             log.info("Printer disconnected: id={}", id);
             return new PrinterDisconnectResponse(InternalResponseCode.SUCCESS_DISCONNECTING_PRINTER, "Success Disconnecting Printer");
         } finally {
@@ -76,181 +157,241 @@ public class ZplPrinterServiceImpl implements PrinterService {
                 throw new InternalBaseException(InternalResponseCode.CANNOT_FIND_CONNECTED_PRINTER, HttpStatus.BAD_REQUEST, "Cannot find connected printer with id: " + request.id());
             }
             final Printer printer = printerById.get(request.id());
-            final ByteBuffer buffer = getByteBuffer(request);
-            final IntBuffer transferred = IntBuffer.allocate(1);
-            final int status = LibUsb.bulkTransfer(printer.deviceHandle(), (byte) 0x01, buffer, transferred, 5000); // 0x01 is hardcoded. use findPrinterEndpoint later
-            if (status != LibUsb.SUCCESS) {
-                throw new InternalBaseException(InternalResponseCode.FAILED_TO_PRINT, HttpStatus.CONFLICT, "Failed to print");
+            final PrintBufferPool bufferPool = getBufferPool(request.id());
+            final ZplFormatCache formatCache = getFormatCache(request.id(), printer);
+            final ZplBufferWriter writer = bufferPool.acquire();
+            try {
+                final String downloadedFormat = writeJob(writer, formatCache, request);
+                final UsbTransferResult result = transfer(request.id(), printer, writer.finish());
+                if (!result.isCompleted()) {
+                    formatCache.forget(downloadedFormat);
+                    throw new InternalBaseException(InternalResponseCode.FAILED_TO_PRINT, HttpStatus.CONFLICT, "Failed to print: " + result.error());
+                }
+                log.debug("Print successful: id={}, bytes transferred={}", request.id(), result.transferred());
+            } finally {
+                bufferPool.release(writer);
             }
-            log.debug("Print successful: id={}, bytes transferred={}", request.id(), transferred.get(0));
         } finally {
             lock.unlock();
         }
     }
 
-    public List<PrinterUsb> getConnectedUsb() {
-        final Context context = new Context();
-        initContext(context);
-        return getAllConnectedPrinter(context);
-    }
-
-    public List<PrinterUsb> getPluggedUsb() {
-        final Context context = new Context();
-        initContext(context);
-        return getAllPluggedPrinter(context);
-    }
-
-    private ByteBuffer getByteBuffer(PrinterPrintRequest request) {
-        final byte[] data = request.command().getBytes(StandardCharsets.UTF_8);
-        final ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
-        buffer.put(data);
-        buffer.rewind();
-        return buffer;
-    }
-
     @Override
-    public List<PrinterUsb> getAllPrinter() {
-        final List<PrinterUsb> connectedPrinter = getConnectedUsb();
-        final List<PrinterUsb> pluggedPrinter = getPluggedUsb();
-        connectedPrinter.addAll(pluggedPrinter);
-        return connectedPrinter;
-    }
-
-    private List<PrinterUsb> getAllConnectedPrinter(Context context) {
+    public PrintBatchResult printBatch(int id, List<PrinterPrintRequest> requests) {
+        final ReentrantLock lock = getLock(id);
+        lock.lock();
         try {
-            final DeviceList devices = getDevices(context);
-            return convertConnected(devices);
-        }finally {
-            LibUsb.exit(context);
+            if (!printerById.containsKey(id)) {
+                return new PrintBatchResult(requests.size(), 0, "Cannot find connected printer with id: " + id);
+            }
+            final Printer printer = printerById.get(id);
+            final PrintBufferPool bufferPool = getBufferPool(id);
+            final ZplFormatCache formatCache = getFormatCache(id, printer);
+            final ZplBufferWriter writer = bufferPool.acquire();
+            try {
+                final int[] jobEndOffsets = new int[requests.size()];
+                final String[] downloadedFormats = new String[requests.size()];
+                int written = 0;
+                String renderError = null;
+                for (; written < requests.size(); written++) {
+                    try {
+                        downloadedFormats[written] = writeJob(writer, formatCache, requests.get(written));
+                    } catch (InternalBaseException e) {
+                        // A job whose template no longer renders ends the batch; the jobs before it are still sent
+                        renderError = e.getMessage();
+                        break;
+                    }
+                    jobEndOffsets[written] = writer.position();
+                }
+                if (written == 0) return new PrintBatchResult(requests.size(), 0, renderError);
+                final UsbTransferResult result = transfer(id, printer, writer.finish());
+                final int printedJobs = countPrintedJobs(Arrays.copyOf(jobEndOffsets, written), result.transferred());
+                for (int i = printedJobs; i < written; i++) formatCache.forget(downloadedFormats[i]);
+                log.debug("Batch print: id={}, jobs={}, printed={}, bytes transferred={}",
+                    id, requests.size(), printedJobs, result.transferred());
+                return new PrintBatchResult(requests.size(), printedJobs, result.error() != null ? result.error() : renderError);
+            } finally {
+                bufferPool.release(writer);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
-    private List<PrinterUsb> getAllPluggedPrinter(Context context) {
-        try {
-            final DeviceList devices = getDevices(context);
-            return convertPlugged(devices);
-        }finally {
-            LibUsb.exit(context);
+    /**
+     * Spools the body to a temporary file before taking the printer lock, so a slow client never holds up the
+     * queue's jobs for this printer; the file is then streamed to the printer in packet-aligned chunks.
+     */
+    @Override
+    public RawPrintResponse printRaw(int id, InputStream data) {
+        if (!printerById.containsKey(id)) throw printerNotConnected(id);
+        try (FileChannel spool = spool(data)) {
+            final ReentrantLock lock = getLock(id);
+            lock.lock();
+            try {
+                final Printer printer = printerById.get(id);
+                if (printer == null) throw printerNotConnected(id);
+                // Every chunk but the last is a whole number of packets, so the printer never sees a short packet mid-job
+                final ByteBuffer chunk = getStreamBuffer(id, printer);
+                long transferred = 0;
+                boolean endOfStream = false;
+                while (!endOfStream) {
+                    chunk.clear();
+                    endOfStream = fill(spool, chunk);
+                    chunk.flip();
+                    if (!chunk.hasRemaining()) break;
+                    final UsbTransferResult result = transfer(id, printer, chunk);
+                    transferred += result.transferred();
+                    if (!result.isCompleted()) {
+                        throw new InternalBaseException(InternalResponseCode.FAILED_TO_PRINT, HttpStatus.CONFLICT, "Failed to print after " + transferred + " bytes: " + result.error());
+                    }
+                }
+                log.debug("Raw print successful: id={}, bytes transferred={}", id, transferred);
+                return new RawPrintResponse(id, transferred);
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new InternalBaseException(InternalResponseCode.FAILED_TO_PRINT, HttpStatus.INTERNAL_SERVER_ERROR, "Unable to spool print data: " + e.getMessage());
         }
     }
 
-    private List<PrinterUsb> convertConnected(DeviceList devices){
-        final List<PrinterUsb> result = new LinkedList<>();
+    /** Copies the body into a temporary file that is deleted when the returned channel is closed. */
+    private FileChannel spool(InputStream data) throws IOException {
+        final Path file = Files.createTempFile("raw-print-", ".spool");
+        final FileChannel spool = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
         try {
-            final Set<String> scannedSerialNumber = new HashSet<>();
-            for (Printer printer : printerById.values()) {
-                for (Device device : devices) {
-                    final Optional<DeviceDescriptor> descriptorOptional = getDeviceDescriptor(device);
-                    if (descriptorOptional.isPresent()) {
-                        final DeviceDescriptor descriptor = descriptorOptional.get();
-                        if (descriptor.bDeviceClass() == 7 || isPrinterVendor(descriptor.idVendor())){
-                            if (descriptor.idVendor() == printer.vendorId() && descriptor.idProduct() == printer.productId()) {
-                                final DeviceHandle testHandle = new DeviceHandle();
-                                final int status = LibUsb.open(device, testHandle);
-                                final String serialNumber = getSerialNumber(descriptor, printer.deviceHandle());
-                                if (status != LibUsb.SUCCESS) {
-                                    if (scannedSerialNumber.contains(serialNumber)) continue;
-                                    result.add(new PrinterUsb(
-                                            printer.vendorId(),
-                                            printer.productId(),
-                                            getProductName(descriptor, printer.deviceHandle()),
-                                            serialNumber
-                                    ));
-                                    scannedSerialNumber.add(serialNumber);
-                                    break;
-                                } else {
-                                    LibUsb.close(testHandle);
-                                }
-                            }
-                        }
-                    }
+            final ByteBuffer buffer = ByteBuffer.allocate(SPOOL_BUFFER_BYTES);
+            final ReadableByteChannel channel = Channels.newChannel(data);
+            long spooled = 0;
+            while (true) {
+                buffer.clear();
+                final boolean endOfStream = fill(channel, buffer);
+                buffer.flip();
+                spooled += buffer.remaining();
+                if (spooled > rawMaxBytes) {
+                    throw new InternalBaseException(InternalResponseCode.VALIDATION_ERROR, HttpStatus.PAYLOAD_TOO_LARGE, "Raw print data exceeds " + rawMaxBytes + " bytes");
                 }
+                while (buffer.hasRemaining()) spool.write(buffer);
+                if (endOfStream) break;
             }
-        } finally {
-            LibUsb.freeDeviceList(devices, true);
+            spool.position(0);
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            spool.close();
+            throw e;
         }
-        return result;
     }
 
-    private List<PrinterUsb> convertPlugged(DeviceList devices){
+    private static InternalBaseException printerNotConnected(int id) {
+        return new InternalBaseException(InternalResponseCode.CANNOT_FIND_CONNECTED_PRINTER, HttpStatus.BAD_REQUEST, "Cannot find connected printer with id: " + id);
+    }
+
+    /** @return true when the stream ended before the buffer was full */
+    private boolean fill(ReadableByteChannel channel, ByteBuffer buffer) {
         try {
-           final List<PrinterUsb> printers = new LinkedList<>();
-            for (final Device device : devices) {
-                try {
-                    final Optional<DeviceDescriptor> descriptorOptional = getDeviceDescriptor(device);
-                    if (descriptorOptional.isPresent()){
-                        final DeviceDescriptor descriptor = descriptorOptional.get();
-                        if (descriptor.bDeviceClass() == 7 || isPrinterVendor(descriptor.idVendor())){
-                            final PrinterDescription printerDescription = getPrinterDescription(device, descriptor);
-                            final PrinterUsb printer = new PrinterUsb(
-                                    descriptor.idVendor(),
-                                    descriptor.idProduct(),
-                                    printerDescription.productName(),
-                                    printerDescription.serialNumber()
-                                    );
-                            printers.add(printer);
-                        }
-                    }
-                } catch (Exception _) {}
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) return true;
             }
-           return printers;
-        }finally {
-            LibUsb.freeDeviceList(devices, true);
+            return false;
+        } catch (IOException e) {
+            throw new InternalBaseException(InternalResponseCode.FAILED_TO_PRINT, HttpStatus.BAD_REQUEST, "Unable to read print data: " + e.getMessage());
         }
     }
 
-    private PrinterDescription getPrinterDescription(Device device, DeviceDescriptor descriptor) {
-        final DeviceHandle deviceHandle = new DeviceHandle();
-        final int status = LibUsb.open(device, deviceHandle);
-        if (status != LibUsb.SUCCESS) throw new RuntimeException("failed to open device handler");
-        try {
-            return new PrinterDescription(
-                    getProductName(descriptor, deviceHandle),
-                    getSerialNumber(descriptor, deviceHandle)
-                    );
-        } catch (Exception e) {
-            return new PrinterDescription(getUnknown(), getUnknown());
-        }finally {
-            LibUsb.close(deviceHandle);
+    /** @return name of a format downloaded for this job, see {@link ZplFormatCache#write} */
+    @Nullable
+    private String writeJob(ZplBufferWriter writer, ZplFormatCache formatCache, PrinterPrintRequest request) {
+        if (request.isTemplated()) {
+            labelTemplateService.render(request.templateId(), request.variables(), writer);
+            return null;
         }
+        return formatCache.write(writer, request.command());
     }
 
-    private String getSerialNumber(DeviceDescriptor descriptor, DeviceHandle deviceHandle) {
-        return LibUsb.getStringDescriptor(deviceHandle, descriptor.iSerialNumber());
+    // IN reads are whole packets, so the buffer is rounded up to avoid an overflow error
+    private ByteBuffer getStatusBuffer(int id, Printer printer) {
+        final int packetSize = printer.endpoints().inMaxPacketSize();
+        final int capacity = (HOST_STATUS_RESPONSE_BYTES + packetSize - 1) / packetSize * packetSize;
+        return statusBufferById.compute(id, (k, buffer) -> buffer != null && buffer.capacity() == capacity ? buffer : ByteBuffer.allocateDirect(capacity));
     }
 
-    private String getUnknown() {
-        return "UNKNOWN";
+    /**
+     * Discards what is left on the IN endpoint from an earlier ~HS that timed out halfway, so it is not read as
+     * the start of the next response.
+     */
+    private void drainStaleStatus(Printer printer, ByteBuffer buffer) {
+        for (int reads = 0; reads < STALE_STATUS_MAX_READS; reads++) {
+            buffer.clear();
+            final UsbTransferResult stale = transferEngine.submitBulk(printer.context(), printer.deviceHandle(), printer.endpoints().inEndpoint(), buffer, STALE_STATUS_TIMEOUT_MS).join();
+            if (!stale.isCompleted() || stale.transferred() == 0) return;
+            log.debug("Discarded {} stale status bytes from printer", stale.transferred());
+        }
     }
 
-    private String getProductName(DeviceDescriptor descriptor, DeviceHandle deviceHandle) {
-        final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
-        final int status = LibUsb.getStringDescriptor(deviceHandle, descriptor.iProduct(), (short) 0x0409, buffer);
-        if (status < 0) return getUnknown();
-        final byte[] bytes = new byte[status];
-        buffer.get(bytes);
-        return new String(bytes, StandardCharsets.UTF_16LE);
+    private static ByteBuffer directBuffer(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
     }
 
-    private boolean isPrinterVendor(short vendorId) {
-        return vendorId == 0x0A5F || // Zebra
-                vendorId == 0x2D37;   // XPrinter;
+    private ByteBuffer getStreamBuffer(int id, Printer printer) {
+        final int capacity = printer.endpoints().outMaxPacketSize() * STREAM_CHUNK_PACKETS;
+        return streamBufferById.compute(id, (k, buffer) -> buffer != null && buffer.capacity() == capacity ? buffer : ByteBuffer.allocateDirect(capacity));
+    }
+
+    /**
+     * Sends the buffer in transfers of at most {@value #TRANSFER_MAX_PACKETS} packets of the OUT endpoint, so only
+     * the final transfer can end in a short packet. Reports the total bytes sent, up to the first failure.
+     */
+    private UsbTransferResult transfer(int id, Printer printer, ByteBuffer buffer) {
+        final PrinterEndpoints endpoints = printer.endpoints();
+        final int maxTransferBytes = endpoints.outMaxPacketSize() * TRANSFER_MAX_PACKETS;
+        final int end = buffer.limit();
+        int transferred = 0;
+        UsbTransferResult result = new UsbTransferResult(LibUsb.TRANSFER_COMPLETED, 0);
+        while (buffer.position() < end && result.isCompleted()) {
+            final ByteBuffer slice = buffer.slice(buffer.position(), Math.min(maxTransferBytes, end - buffer.position()));
+            result = transferEngine.submitBulk(printer.context(), printer.deviceHandle(), endpoints.outEndpoint(), slice, TRANSFER_TIMEOUT_MS).join();
+            transferred += result.transferred();
+            buffer.position(buffer.position() + result.transferred());
+            if (result.isCompleted() && result.transferred() < slice.limit()) {
+                result = new UsbTransferResult(LibUsb.TRANSFER_ERROR, result.transferred());
+            }
+        }
+        if (result.status() == LibUsb.TRANSFER_NO_DEVICE) healthMonitor.reportDeviceGone(id);
+        return new UsbTransferResult(result.status(), transferred);
     }
 
-    private Optional<DeviceDescriptor> getDeviceDescriptor(Device device){
-        final DeviceDescriptor descriptor = new DeviceDescriptor();
-        final int status = LibUsb.getDeviceDescriptor(device, descriptor);
-        if (status != LibUsb.SUCCESS) return Optional.empty();
-        return Optional.of(descriptor);
+    private int countPrintedJobs(int[] jobEndOffsets, int transferred) {
+        int printed = 0;
+        while (printed < jobEndOffsets.length && jobEndOffsets[printed] <= transferred) printed++;
+        return printed;
     }
 
-    private DeviceList getDevices(Context context) {
-        final DeviceList devices = new DeviceList();
-        final int status = LibUsb.getDeviceList(context, devices);
-        if (status < 0){
-            throw new InternalBaseException(InternalResponseCode.UNABLE_TO_GET_DEVICE_LIST, HttpStatus.CONFLICT, "Unable to get device list: " + LibUsb.strError(status));
+    @Override
+    public List<PrinterUsb> getAllPrinter() {
+        final List<PrinterUsb> printers = new ArrayList<>();
+        final Set<String> connectedSerialNumbers = new HashSet<>();
+        for (Printer printer : printerById.values()) {
+            final String productName = deviceInventory.find(printer.vendorId(), printer.productId(), printer.serialNumber())
+                    .map(device -> device.description().productName())
+                    .orElse(getUnknown());
+            printers.add(new PrinterUsb(printer.vendorId(), printer.productId(), productName, printer.serialNumber()));
+            connectedSerialNumbers.add(printer.serialNumber());
+        }
+        for (UsbPrinterDevice device : deviceInventory.getDevices()) {
+            if (!device.isDescribed() || connectedSerialNumbers.contains(device.description().serialNumber())) continue;
+            printers.add(new PrinterUsb(
+                    device.vendorId(),
+                    device.productId(),
+                    device.description().productName(),
+                    device.description().serialNumber()
+            ));
         }
-        return devices;
+        return printers;
+    }
+
+    private String getUnknown() {
+        return "UNKNOWN";
     }
 
     @Override
@@ -260,50 +401,123 @@ public class ZplPrinterServiceImpl implements PrinterService {
 
     @Override
     public boolean isConnected(int id) {
-        final ReentrantLock lock = getLock(id);
-        lock.lock();
-        try {
-            // Quick check: if not in map, return false
-            if (!printerById.containsKey(id)) {
-                return false;
-            }
-
-            final Printer printer = printerById.get(id);
+        return healthMonitor.isConnected(id);
+    }
 
-            // Verify device is still physically connected
-            if (!verifyDeviceStillConnected(printer)) {
-                log.warn("Printer id={} is no longer physically connected. Auto-removing from connected printers.", id);
+    @Override
+    public boolean isReady(int id) {
+        return healthMonitor.isConnected(id) && statusMonitor.isReady(id);
+    }
 
-                // Cleanup resources (don't throw on error since device is already gone)
-                cleanupPrinterResources(printer, false);
+    @Override
+    public List<PrinterHealthStatus> getHealth() {
+        return healthMonitor.getStatuses();
+    }
 
-                // Remove from map
-                printerById.remove(id);
+    @Override
+    public List<PrinterHostStatus> getHostStatuses() {
+        return statusMonitor.getStatuses();
+    }
 
-                return false;
+    @Override
+    @Nullable
+    public String queryHostStatus(int id) {
+        final ReentrantLock lock = getLock(id);
+        // A job is being sent; the next poll catches up
+        if (!lock.tryLock()) return null;
+        try {
+            final Printer printer = printerById.get(id);
+            if (printer == null || !printer.endpoints().hasInEndpoint()) return null;
+            final PrinterEndpoints endpoints = printer.endpoints();
+            final ByteBuffer response = getStatusBuffer(id, printer);
+            drainStaleStatus(printer, response);
+            final UsbTransferResult sent = transferEngine.submitBulk(printer.context(), printer.deviceHandle(), endpoints.outEndpoint(), HOST_STATUS_QUERY.duplicate(), STATUS_TIMEOUT_MS).join();
+            if (!sent.isCompleted()) return null;
+            final StringBuilder text = new StringBuilder(HOST_STATUS_RESPONSE_BYTES);
+            int strings = 0;
+            while (strings < HOST_STATUS_STRINGS) {
+                response.clear();
+                final UsbTransferResult received = transferEngine.submitBulk(printer.context(), printer.deviceHandle(), endpoints.inEndpoint(), response, STATUS_TIMEOUT_MS).join();
+                if (!received.isCompleted() || received.transferred() == 0) break;
+                for (int i = 0; i < received.transferred(); i++) {
+                    final char c = (char) (response.get(i) & 0xFF);
+                    if (c == ETX) strings++;
+                    text.append(c);
+                }
             }
+            return text.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    @Override
+    public void release(int id) {
+        final ReentrantLock lock = getLock(id);
+        lock.lock();
+        try {
+            final Printer printer = printerById.remove(id);
+            if (printer == null) return;
+            // A power-cycled printer loses the formats stored in its RAM
+            removeFormatCache(id);
+            // Cleanup resources (don't throw on error since device is already gone)
+            cleanupPrinterResources(printer, false);
+            log.info("Released handle of unplugged printer id={}", id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean reclaim(int id, short vendorId, short productId, String serialNumber) {
+        final ReentrantLock lock = getLock(id);
+        lock.lock();
+        try {
+            if (printerById.containsKey(id)) return true;
+            // Disconnected explicitly while this reclaim was waiting for the lock
+            if (!healthMonitor.isTracked(id)) return false;
+            final Printer printer = openUsbDevice(new PrinterConnectRequest(id, vendorId, productId, serialNumber));
+            printerById.put(id, printer);
+            log.info("Printer reclaimed: id={}, serial={}", id, serialNumber);
             return true;
+        } catch (InternalBaseException e) {
+            log.debug("Unable to reclaim printer id={}: {}", id, e.getMessage());
+            return false;
         } finally {
             lock.unlock();
         }
     }
 
+    /** Locks are kept for the life of the service, so every caller for an id contends on the same one. */
     private ReentrantLock getLock(int id) {
         return lockById.computeIfAbsent(id, k -> new ReentrantLock());
     }
 
-    private void removeLock(int id) {
-        lockById.remove(id);
+    private PrintBufferPool getBufferPool(int id) {
+        return bufferPoolById.computeIfAbsent(id, k -> new PrintBufferPool());
+    }
+
+    private void removeBufferPool(int id) {
+        final PrintBufferPool bufferPool = bufferPoolById.remove(id);
+        if (bufferPool != null) bufferPool.clear();
+    }
+
+    private ZplFormatCache getFormatCache(int id, Printer printer) {
+        // ^DF/^XF are only relied on for Zebra firmware; other ZPL emulations get the command as-is
+        final boolean enabled = formatCacheEnabled && printer.vendorId() == ZEBRA_VENDOR_ID;
+        return formatCacheById.computeIfAbsent(id, k -> new ZplFormatCache(enabled ? formatCacheMaxBytes : 0, formatCacheMinFormatBytes));
+    }
+
+    private void removeFormatCache(int id) {
+        formatCacheById.remove(id);
     }
 
     private void cleanupPrinterResources(Printer printer, boolean throwOnError) {
-        final Context context = printer.context();
         final DeviceHandle deviceHandle = printer.deviceHandle();
 
         // Try to release interface
         try {
-            final int releaseStatus = LibUsb.releaseInterface(deviceHandle, 0);
+            final int releaseStatus = LibUsb.releaseInterface(deviceHandle, printer.endpoints().interfaceNumber());
             if (releaseStatus != LibUsb.SUCCESS) {
                 final String error = "Failed to release interface: " + LibUsb.strError(releaseStatus);
                 if (throwOnError) {
@@ -330,87 +544,52 @@ public class ZplPrinterServiceImpl implements PrinterService {
                 log.warn("Exception while closing device handle: {}", e.getMessage());
             }
         }
+    }
 
-        // Try to exit context
-        try {
-            LibUsb.exit(context);
-        } catch (Exception e) {
-            if (throwOnError) {
-                throw e;
-            } else {
-                log.warn("Exception while exiting context: {}", e.getMessage());
-            }
-        }
+    private Printer openUsbDevice(PrinterConnectRequest request) {
+        final Context context = deviceInventory.context();
+        final DeviceHandle deviceHandle = getDeviceHandle(request, context);
+        final PrinterEndpoints endpoints = discoverEndpoints(deviceHandle);
+        detachKernelDriverIfActive(deviceHandle, endpoints.interfaceNumber());
+        claimInterface(deviceHandle, endpoints.interfaceNumber());
+        selectAlternateSetting(deviceHandle, endpoints);
+        log.debug("Printer endpoints: serial={}, {}", request.serialNumber(), endpoints);
+        return new Printer(request.vendorId(), request.productId(), request.serialNumber(), context, deviceHandle, endpoints);
     }
 
-    private boolean verifyDeviceStillConnected(Printer printer) {
+    private PrinterEndpoints discoverEndpoints(DeviceHandle deviceHandle) {
         try {
-            // Try to get the device from the existing handle
-            final Device device = LibUsb.getDevice(printer.deviceHandle());
-            if (device == null) {
-                log.debug("Device handle no longer has an associated device");
-                return false;
-            }
-
-            // Try to get device descriptor to verify the device is still accessible
-            final DeviceDescriptor descriptor = new DeviceDescriptor();
-            final int status = LibUsb.getDeviceDescriptor(device, descriptor);
-
-            if (status != LibUsb.SUCCESS) {
-                log.debug("Failed to get device descriptor: {}", LibUsb.strError(status));
-                return false;
-            }
-
-            // Verify vendorId and productId match (sanity check)
-            if (descriptor.idVendor() != printer.vendorId() ||
-                descriptor.idProduct() != printer.productId()) {
-                log.warn("Device vendorId/productId mismatch - expected {}/{}, got {}/{}",
-                    printer.vendorId(), printer.productId(),
-                    descriptor.idVendor(), descriptor.idProduct());
-                return false;
-            }
-
-            // Try a simple operation on the existing handle to verify it's still valid
-            // Attempting to get a string descriptor - if device is unplugged, this will fail
-            try {
-                final String serial = getSerialNumber(descriptor, printer.deviceHandle());
-                // If we can read the serial number, the device is still connected
-                return serial != null && !serial.isEmpty();
-            } catch (Exception e) {
-                log.debug("Failed to read serial number from device handle: {}", e.getMessage());
-                return false;
-            }
-
-        } catch (Exception e) {
-            log.debug("Exception while verifying device connection: {}", e.getMessage());
-            return false;
+            return PrinterEndpoints.discover(LibUsb.getDevice(deviceHandle));
+        } catch (InternalBaseException e) {
+            LibUsb.close(deviceHandle);
+            throw e;
         }
     }
 
-    private Printer openUsbDevice(PrinterConnectRequest request) {
-        final Context context = new Context();
-        initContext(context);
-        final DeviceHandle deviceHandle = getDeviceHandle(request, context);
-        detachKernelDriverIfActive(context, deviceHandle);
-        claimInterface(context, deviceHandle);
-        return new Printer(request.vendorId(), request.productId(), context, deviceHandle);
-    }
-
-    void claimInterface(Context context, DeviceHandle deviceHandle){
-        final int status = LibUsb.claimInterface(deviceHandle, 0);
+    void claimInterface(DeviceHandle deviceHandle, int interfaceNumber){
+        final int status = LibUsb.claimInterface(deviceHandle, interfaceNumber);
         if (status != LibUsb.SUCCESS){
             LibUsb.close(deviceHandle);
-            LibUsb.exit(context);
             throw new InternalBaseException(InternalResponseCode.UNABLE_TO_CLAIM_INTERFACE, HttpStatus.CONFLICT, "Unable to claim interface: " + LibUsb.strError(status));
         }
     }
 
-    private void detachKernelDriverIfActive(Context context, DeviceHandle deviceHandle) {
-        if (LibUsb.kernelDriverActive(deviceHandle, 0) != 1) return;
-        final int status = LibUsb.detachKernelDriver(deviceHandle, 0);
+    /** Setting 0 is active after claiming; the bulk endpoints of any other setting only exist once it is selected. */
+    private void selectAlternateSetting(DeviceHandle deviceHandle, PrinterEndpoints endpoints) {
+        if (endpoints.alternateSetting() == 0) return;
+        final int status = LibUsb.setInterfaceAltSetting(deviceHandle, endpoints.interfaceNumber(), endpoints.alternateSetting());
+        if (status != LibUsb.SUCCESS) {
+            LibUsb.releaseInterface(deviceHandle, endpoints.interfaceNumber());
+            LibUsb.close(deviceHandle);
+            throw new InternalBaseException(InternalResponseCode.UNABLE_TO_CLAIM_INTERFACE, HttpStatus.CONFLICT, "Unable to select alternate setting " + endpoints.alternateSetting() + ": " + LibUsb.strError(status));
+        }
+    }
+
+    private void detachKernelDriverIfActive(DeviceHandle deviceHandle, int interfaceNumber) {
+        if (LibUsb.kernelDriverActive(deviceHandle, interfaceNumber) != 1) return;
+        final int status = LibUsb.detachKernelDriver(deviceHandle, interfaceNumber);
         if (status != LibUsb.SUCCESS && status != LibUsb.ERROR_NOT_FOUND && status != LibUsb.ERROR_NOT_SUPPORTED){
             LibUsb.close(deviceHandle);
-            LibUsb.exit(context);
             throw new InternalBaseException(InternalResponseCode.UNABLE_TO_DETACH_KERNEL_DRIVER, HttpStatus.CONFLICT, "Unable to detach kernel driver: " + LibUsb.strError(status));
         }
     }
@@ -418,7 +597,6 @@ public class ZplPrinterServiceImpl implements PrinterService {
     private DeviceHandle getDeviceHandle(PrinterConnectRequest request, Context context) {
         final DeviceHandle deviceHandle = getDeviceHandleBySerial(request, context);
         if (deviceHandle == null){
-            LibUsb.exit(context);
             throw new InternalBaseException(InternalResponseCode.USB_DEVICE_NOT_FOUND, HttpStatus.BAD_REQUEST, "USB device not found: vendorId="+request.vendorId()+", productId="+request.productId());
         }
         return deviceHandle;
@@ -428,9 +606,14 @@ public class ZplPrinterServiceImpl implements PrinterService {
     private DeviceHandle getDeviceHandleBySerial(PrinterConnectRequest request, Context context) {
         final DeviceList list = new DeviceList();
         LibUsb.getDeviceList(context, list);
+        final String knownLocation = deviceInventory.find(request.vendorId(), request.productId(), request.serialNumber())
+                .map(UsbPrinterDevice::location)
+                .orElse(null);
 
         try {
             for (Device device : list) {
+                // The inventory already knows where this serial is plugged, so skip opening other devices
+                if (knownLocation != null && !knownLocation.equals(deviceInventory.locationOf(device))) continue;
                 final DeviceDescriptor descriptor = new DeviceDescriptor();
                 LibUsb.getDeviceDescriptor(device, descriptor);
 
@@ -456,13 +639,6 @@ public class ZplPrinterServiceImpl implements PrinterService {
         return null;
     }
 
-    private void initContext(Context context) {
-        final int status = LibUsb.init(context);
-        if (status != LibUsb.SUCCESS){
-            throw new InternalBaseException(InternalResponseCode.INIT_CONTEXT_FAILED, HttpStatus.CONFLICT, "Unable to initialize libusb: " + LibUsb.strError(status));
-        }
-    }
-
     @PreDestroy
     public void shutdown() {
         log.info("Shutting down ZplPrinterService. Cleaning up {} connected printers.", printerById.size());
@@ -489,6 +665,10 @@ public class ZplPrinterServiceImpl implements PrinterService {
             // Clear maps
             printerById.clear();
             lockById.clear();
+            bufferPoolById.clear();
+            formatCacheById.clear();
+            streamBufferById.clear();
+            statusBufferById.clear();
 
             log.info("ZplPrinterService shutdown complete.");
         } finally {
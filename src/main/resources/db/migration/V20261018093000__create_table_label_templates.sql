@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS label_templates
+(
+    id         VARCHAR PRIMARY KEY,
+    content    VARCHAR   NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
\ No newline at end of file
@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS zpl_graphics
+(
+    id            VARCHAR PRIMARY KEY,
+    width         INT       NOT NULL,
+    height        INT       NOT NULL,
+    bytes_per_row INT       NOT NULL,
+    encoding      VARCHAR   NOT NULL,
+    command       VARCHAR   NOT NULL,
+    created_at    TIMESTAMP NOT NULL
+);
\ No newline at end of file
@@ -0,0 +1,6 @@
+CREATE TABLE IF NOT EXISTS print_sequence_cursors
+(
+    warehouse_id  BIGINT PRIMARY KEY,
+    last_sequence BIGINT    NOT NULL,
+    updated_at    TIMESTAMP NOT NULL
+);
@@ -0,0 +1,154 @@
+package id.segari.service.service.impl.websocket;
+
+import id.segari.service.common.InternalResponseCode;
+import id.segari.service.common.dto.printer.print.BulkPrintItemResult;
+import id.segari.service.common.dto.printer.print.BulkPrintResponse;
+import id.segari.service.common.dto.websocket.PrintCatchUpFrame;
+import id.segari.service.common.dto.websocket.PrintCatchUpPage;
+import id.segari.service.service.PrintCatchUpExternalService;
+import id.segari.service.service.PrintQueueService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrintCatchUpTest {
+    private static final long WAREHOUSE_ID = 7;
+    private static final int PAGE_SIZE = 2;
+
+    private final PrintQueueService printQueueService = mock(PrintQueueService.class);
+    private final PrintCatchUpExternalService backend = mock(PrintCatchUpExternalService.class);
+    private final StompSession session = mock(StompSession.class);
+    private ScheduledExecutorService scheduler;
+    private PrintSequenceTracker sequenceTracker;
+    private PrintStompFlowControl flowControl;
+    private PrintCatchUp catchUp;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        when(session.isConnected()).thenReturn(true);
+        when(session.subscribe(any(StompHeaders.class), any())).thenReturn(mock(StompSession.Subscription.class));
+        when(printQueueService.addAllToQueueDurably(anyList())).thenReturn(CompletableFuture.completedFuture(accepted()));
+        flowControl = new PrintStompFlowControl("/topic/" + WAREHOUSE_ID, printQueueService, scheduler, 0.8, 0.5, 60_000, 10,
+                mock(PrintStompFlowControl.Listener.class));
+        flowControl.attach(session, mock(StompFrameHandler.class));
+        sequenceTracker = new PrintSequenceTracker(100, null);
+        catchUp = new PrintCatchUp(WAREHOUSE_ID, sequenceTracker, flowControl, printQueueService, backend, scheduler, PAGE_SIZE, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void pagesThroughMissedFramesAndClosesGap() {
+        sequenceTracker.claim(10);
+        sequenceTracker.markGap();
+        when(backend.getMissedFrames(WAREHOUSE_ID, 10, PAGE_SIZE)).thenReturn(page(true, 11, 12));
+        when(backend.getMissedFrames(WAREHOUSE_ID, 12, PAGE_SIZE)).thenReturn(page(false, 13));
+
+        catchUp.request();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequenceTracker.catchUpCursor().isEmpty());
+        verify(printQueueService, times(3)).addAllToQueueDurably(anyList());
+        assertThat(catchUp.framesCaughtUp()).isEqualTo(3);
+        assertThat(sequenceTracker.lastSequence()).isEqualTo(OptionalLong.of(13));
+    }
+
+    @Test
+    void skipsFramesAlreadyReceivedLive() {
+        sequenceTracker.claim(10);
+        sequenceTracker.markGap();
+        sequenceTracker.claim(12);
+        when(backend.getMissedFrames(WAREHOUSE_ID, 10, PAGE_SIZE)).thenReturn(page(false, 11, 12));
+
+        catchUp.request();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequenceTracker.catchUpCursor().isEmpty());
+        verify(printQueueService, times(1)).addAllToQueueDurably(anyList());
+        assertThat(catchUp.framesCaughtUp()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueStopsCatchUpAndKeepsCursor() {
+        sequenceTracker.claim(10);
+        sequenceTracker.markGap();
+        when(backend.getMissedFrames(WAREHOUSE_ID, 10, PAGE_SIZE)).thenReturn(page(false, 11, 12));
+        when(printQueueService.addAllToQueueDurably(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(accepted()))
+                .thenReturn(CompletableFuture.completedFuture(queueFull()));
+
+        catchUp.request();
+
+        await().atMost(Duration.ofSeconds(5)).until(flowControl::isPaused);
+        assertThat(sequenceTracker.catchUpCursor()).isEqualTo(OptionalLong.of(11));
+        assertThat(sequenceTracker.claim(12)).isTrue();
+    }
+
+    @Test
+    void backendFailureKeepsGap() {
+        sequenceTracker.claim(10);
+        sequenceTracker.markGap();
+        when(backend.getMissedFrames(anyLong(), anyLong(), anyInt())).thenThrow(new IllegalStateException("backend down"));
+
+        catchUp.request();
+
+        verify(backend, timeout(5000)).getMissedFrames(WAREHOUSE_ID, 10, PAGE_SIZE);
+        verify(printQueueService, never()).addAllToQueueDurably(anyList());
+        assertThat(sequenceTracker.catchUpCursor()).isEqualTo(OptionalLong.of(10));
+    }
+
+    @Test
+    void restoredPositionIsCaughtUpAfterRestart() {
+        sequenceTracker = new PrintSequenceTracker(100, 40L);
+        catchUp = new PrintCatchUp(WAREHOUSE_ID, sequenceTracker, flowControl, printQueueService, backend, scheduler, PAGE_SIZE, 60_000);
+        when(backend.getMissedFrames(WAREHOUSE_ID, 40, PAGE_SIZE)).thenReturn(page(false, 41));
+
+        catchUp.request();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequenceTracker.catchUpCursor().isEmpty());
+        verify(backend).getMissedFrames(eq(WAREHOUSE_ID), eq(40L), eq(PAGE_SIZE));
+        assertThat(sequenceTracker.resumePosition()).isEqualTo(OptionalLong.of(41));
+    }
+
+    private static PrintCatchUpPage page(boolean hasMore, long... sequences) {
+        final List<PrintCatchUpFrame> frames = Arrays.stream(sequences)
+                .mapToObj(sequence -> new PrintCatchUpFrame(sequence, List.of()))
+                .toList();
+        return new PrintCatchUpPage(frames, hasMore);
+    }
+
+    private static BulkPrintResponse accepted() {
+        return new BulkPrintResponse(1, 0, List.of(BulkPrintItemResult.accepted(1)));
+    }
+
+    private static BulkPrintResponse queueFull() {
+        return new BulkPrintResponse(0, 1, List.of(BulkPrintItemResult.rejected(InternalResponseCode.PRINT_QUEUE_MAX_JOB, "full")));
+    }
+}
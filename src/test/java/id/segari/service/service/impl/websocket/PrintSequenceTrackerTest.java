@@ -0,0 +1,99 @@
+package id.segari.service.service.impl.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrintSequenceTrackerTest {
+
+    @Test
+    void gapStartsAfterLatestHandledSequence() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, null);
+        tracker.claim(5);
+        tracker.claim(7);
+
+        tracker.markGap();
+
+        assertThat(tracker.catchUpCursor()).isEqualTo(OptionalLong.of(7));
+    }
+
+    @Test
+    void gapBeforeAnyFrameWithoutSavedPositionHasNoStart() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, null);
+
+        tracker.markGap();
+
+        assertThat(tracker.catchUpCursor()).isEmpty();
+    }
+
+    @Test
+    void restoredTrackerStartsWithGapAfterSavedPosition() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, 42L);
+
+        assertThat(tracker.catchUpCursor()).isEqualTo(OptionalLong.of(42));
+        assertThat(tracker.lastSequence()).isEqualTo(OptionalLong.of(42));
+    }
+
+    @Test
+    void gapBeforeAnyFrameIsSeededFromSavedPosition() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, 42L);
+        tracker.finishCatchUp(tracker.gapsMarked());
+
+        tracker.markGap();
+
+        assertThat(tracker.catchUpCursor()).isEqualTo(OptionalLong.of(42));
+    }
+
+    @Test
+    void catchUpAdvancesCursorAndClosesGap() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, null);
+        tracker.claim(10);
+        tracker.markGap();
+        final long gapsMarked = tracker.gapsMarked();
+
+        tracker.advanceCatchUp(12);
+        assertThat(tracker.catchUpCursor()).isEqualTo(OptionalLong.of(12));
+        tracker.advanceCatchUp(11);
+        assertThat(tracker.catchUpCursor()).isEqualTo(OptionalLong.of(12));
+
+        tracker.finishCatchUp(gapsMarked);
+        assertThat(tracker.catchUpCursor()).isEmpty();
+    }
+
+    @Test
+    void gapMarkedDuringCatchUpIsKept() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, null);
+        tracker.claim(10);
+        tracker.markGap();
+        final long gapsMarked = tracker.gapsMarked();
+
+        tracker.markGap();
+        tracker.finishCatchUp(gapsMarked);
+
+        assertThat(tracker.catchUpCursor()).isEqualTo(OptionalLong.of(10));
+    }
+
+    @Test
+    void resumePositionStaysAtStartOfPendingGap() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, null);
+        tracker.claim(10);
+        tracker.markGap();
+        tracker.claim(20);
+
+        assertThat(tracker.resumePosition()).isEqualTo(OptionalLong.of(10));
+        tracker.finishCatchUp(tracker.gapsMarked());
+        assertThat(tracker.resumePosition()).isEqualTo(OptionalLong.of(20));
+    }
+
+    @Test
+    void duplicateAndReleasedSequences() {
+        final PrintSequenceTracker tracker = new PrintSequenceTracker(100, null);
+
+        assertThat(tracker.claim(3)).isTrue();
+        assertThat(tracker.claim(3)).isFalse();
+        tracker.release(3);
+        assertThat(tracker.claim(3)).isTrue();
+    }
+}